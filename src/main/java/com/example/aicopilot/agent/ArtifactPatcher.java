@@ -0,0 +1,59 @@
+package com.example.aicopilot.agent;
+
+import com.example.aicopilot.dto.ArtifactPatchResponse;
+import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.UserMessage;
+import dev.langchain4j.service.V;
+import dev.langchain4j.service.spring.AiService;
+
+import static dev.langchain4j.service.spring.AiServiceWiringMode.EXPLICIT;
+
+/**
+ * [Optimization] Incremental artifact update after a MODIFY.
+ * Regenerates the data entities and forms of the changed nodes only, in one call, instead of
+ * running DataModeler and FormUXDesigner over the whole process again.
+ */
+@AiService(wiringMode = EXPLICIT, chatModel = "patcherChatModel")
+public interface ArtifactPatcher {
+
+    @SystemMessage("""
+        You are a 'Data & Form Patch Designer'.
+        A process map was edited. Only the listed CHANGED nodes need new data entities and form updates;
+        everything else is kept as is.
+
+        ### ⚡ CORE PRINCIPLES
+        1. **Scope:** Create ATOMIC data entities ONLY for the changed nodes (`sourceNodeId` = the node that collects the data).
+           - Input fields belong to the User Task that collects them; outputs belong to the Service Task.
+           - Do NOT recreate entities listed in `existingEntities` (same alias). You MAY bind form fields to them.
+        2. **Naming:** `alias` is UpperCamelCase and unique across new AND existing entities.
+        3. **Forms:** Return each stale form updated for the change (keep its `formName`, groups and field ids where possible),
+           and a new form for a new USER_TASK that collects data. Do not return forms that were not given as stale unless new.
+        4. **Linking Integrity:** every FormField `entityAlias` MUST match the alias of a new or existing entity EXACTLY.
+        5. **Visibility:** `visibleActivityIds` / `readonlyActivityIds` may only use ids from the process outline.
+        """)
+    @UserMessage("""
+        Update the data model and forms for the changed nodes.
+
+        [User Request]
+        {{userRequest}}
+
+        [Process Outline (id, type, label, next)]
+        {{processOutline}}
+
+        [Changed Nodes (JSON)]
+        {{changedNodes}}
+
+        [Existing Entities (alias, label, sourceNodeId)]
+        {{existingEntities}}
+
+        [Stale Forms (JSON)]
+        {{staleForms}}
+        """)
+    ArtifactPatchResponse patch(
+            @V("userRequest") String userRequest,
+            @V("processOutline") String processOutline,
+            @V("changedNodes") String changedNodesJson,
+            @V("existingEntities") String existingEntities,
+            @V("staleForms") String staleFormsJson
+    );
+}
@@ -6,10 +6,12 @@ import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.V;
 import dev.langchain4j.service.spring.AiService;
 
+import static dev.langchain4j.service.spring.AiServiceWiringMode.EXPLICIT;
+
 /**
  * AI Agent Interface for designing data entity models based on process definitions.
  */
-@AiService
+@AiService(wiringMode = EXPLICIT, chatModel = "dataModelerChatModel")
 public interface DataModeler {
 
     @SystemMessage("""
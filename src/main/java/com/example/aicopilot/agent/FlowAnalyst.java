@@ -7,7 +7,9 @@ import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.V;
 import dev.langchain4j.service.spring.AiService;
 
-@AiService
+import static dev.langchain4j.service.spring.AiServiceWiringMode.EXPLICIT;
+
+@AiService(wiringMode = EXPLICIT, chatModel = "flowAnalystChatModel")
 public interface FlowAnalyst {
 
     // [Updated] Analyze Prompt: From "Strict Auditor" to "Process Optimization Consultant"
@@ -6,7 +6,9 @@ import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.V;
 import dev.langchain4j.service.spring.AiService;
 
-@AiService
+import static dev.langchain4j.service.spring.AiServiceWiringMode.EXPLICIT;
+
+@AiService(wiringMode = EXPLICIT, chatModel = "formDesignerChatModel")
 public interface FormUXDesigner {
 
     @SystemMessage("""
@@ -72,6 +74,49 @@ public interface FormUXDesigner {
             @V("dataContext") String dataContextJson
     );
 
+    // [Optimization] Sharded mode: one call per USER_TASK with that task's data slice plus upstream data read-only (see ShardedFormGenerator)
+    @SystemMessage("""
+        You are a highly intelligent 'UI/UX Form Architect'.
+        Your goal is to generate the Form Definition for ONE user task of a larger process.
+
+        ### 🚫 CRITICAL RULES (DO NOT IGNORE)
+        1. **STRICT DATA BINDING:** Use ONLY the `Data Entities` in the `dataContext`.
+           - `editable`: data captured at this task -> input fields.
+           - `readOnly`: data captured in earlier steps -> display fields (add the task's Activity ID to `readonlyActivityIds`).
+             Include the upstream fields the task needs to review (e.g., request details on an approval task).
+           - Do NOT invent new fields. Do NOT omit required fields.
+        2. **LINKING INTEGRITY:** The `entityAlias` in the FormField MUST match the `alias` in the DataEntity EXACTLY.
+        3. **SCOPE:** Return exactly ONE form in `formDefinitions`, named after the task (e.g., "Expense_Submission_Form").
+
+        ### Component Selection Logic
+        - **String:** Short (<100 chars) -> `input_text`, Long (>100 chars) -> `input_textarea`
+        - **Selection:** `lookup` (Single) -> `dropdown`, `lookup_array` (Multi) -> `multiple_dropdown`
+        - **Boolean:** -> `checkbox` or `tri_state_checkbox`
+        - **Date:** -> `date_picker`
+        - **File:** -> `file_upload` (Input) or `file_list` (Display)
+
+        ### Visibility & Permissions
+        - `visibleActivityIds`: include the task's Activity ID.
+        - `readonlyActivityIds`: include the task's Activity ID for every field bound to a `readOnly` entity.
+    """)
+    @UserMessage("""
+        Design the UX Form for this user task.
+        
+        [User Request]
+        {{userRequest}}
+
+        [User Task]
+        {{taskContext}}
+
+        [Data Entities (editable = captured here, readOnly = captured upstream)]
+        {{dataContext}}
+    """)
+    FormResponse designTaskForm(
+            @V("userRequest") String userRequest,
+            @V("taskContext") String taskContextJson,
+            @V("dataContext") String dataContextJson
+    );
+
     // [New] Auto-Discovery Method for Forms
     @SystemMessage("""
         You are a 'Form Gap Analyst'.
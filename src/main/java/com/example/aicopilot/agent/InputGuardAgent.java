@@ -5,11 +5,13 @@ import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.spring.AiService;
 
+import static dev.langchain4j.service.spring.AiServiceWiringMode.EXPLICIT;
+
 /**
  * Domain Guardrail Agent.
  * Determines if the user's query is within the domain of business process design.
  */
-@AiService
+@AiService(wiringMode = EXPLICIT, chatModel = "inputGuardChatModel")
 public interface InputGuardAgent {
 
     @SystemMessage("""
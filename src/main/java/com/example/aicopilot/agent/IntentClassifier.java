@@ -5,11 +5,13 @@ import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.spring.AiService;
 
+import static dev.langchain4j.service.spring.AiServiceWiringMode.EXPLICIT;
+
 /**
  * 인텐트 분류 에이전트.
  * OpenAI JSON 모드 요구사항에 맞춰 "json" 키워드를 포함하고 객체 구조를 반환합니다.
  */
-@AiService
+@AiService(wiringMode = EXPLICIT, chatModel = "intentClassifierChatModel")
 public interface IntentClassifier {
 
     @SystemMessage("""
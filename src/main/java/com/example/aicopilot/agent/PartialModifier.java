@@ -6,11 +6,13 @@ import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.V;
 import dev.langchain4j.service.spring.AiService;
 
+import static dev.langchain4j.service.spring.AiServiceWiringMode.EXPLICIT;
+
 /**
  * AI Agent for 'Surgical' process modifications.
  * Modifies specific parts of the workflow while preserving the rest of the structure.
  */
-@AiService
+@AiService(wiringMode = EXPLICIT, chatModel = "patcherChatModel")
 public interface PartialModifier {
 
     @SystemMessage("""
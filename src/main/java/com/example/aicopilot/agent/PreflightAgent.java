@@ -0,0 +1,42 @@
+package com.example.aicopilot.agent;
+
+import com.example.aicopilot.dto.chat.PreflightResponse;
+import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.UserMessage;
+import dev.langchain4j.service.spring.AiService;
+
+import static dev.langchain4j.service.spring.AiServiceWiringMode.EXPLICIT;
+
+/**
+ * Fused Preflight Agent.
+ * Performs the InputGuardAgent validation and the IntentClassifier categorization in one round trip.
+ */
+@AiService(wiringMode = EXPLICIT, chatModel = "preflightChatModel")
+public interface PreflightAgent {
+
+    @SystemMessage("""
+        You are the entry point of an AI Workflow Architect application.
+        For every user input you make TWO decisions and return both in one JSON object.
+
+        ### 1. Domain Validation (`validation`)
+        - **VALID**: The input is about business process design, data modeling, or form configuration
+          (workflow, nodes, swimlanes, data binding, BPMN, gateways, task assignments, or a clear intent to build a process).
+        - **BRIDGE**: The topic is outside the direct domain but can be solved through a workflow
+          (e.g., "How to manage a team?"). In `message`, acknowledge the topic and suggest designing a relevant workflow.
+        - **INVALID**: Completely unrelated topics (weather, gossip, religion, politics, general coding, unrelated IT trivia).
+          In `message`, politely refuse and explain our focus on professional process architecture.
+        - The `message` field MUST be in English. When in doubt, prioritize VALID or BRIDGE.
+
+        ### 2. Intent Classification (`intent.intent`)
+        1. **DESIGN**: Creating a new process map or workflow from scratch.
+        2. **MODIFY**: Updating, adding, or deleting nodes in an existing canvas.
+        3. **ANALYZE**: Performing logic audits or seeking optimization advice.
+        4. **GUIDE**: Questions about app features or usage instructions.
+        5. **CHAT**: General business conversation within the design domain.
+
+        ### Output Requirement
+        - You MUST return **JSON** matching `PreflightResponse`: { "validation": { "status", "message" }, "intent": { "intent" } }.
+        - Always fill `intent`, even when validation is not VALID.
+        """)
+    PreflightResponse preflight(@UserMessage String userQuery);
+}
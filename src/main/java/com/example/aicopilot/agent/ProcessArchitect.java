@@ -2,18 +2,22 @@ package com.example.aicopilot.agent;
 
 import com.example.aicopilot.dto.process.ProcessResponse;
 import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.TokenStream;
 import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.V;
 import dev.langchain4j.service.spring.AiService;
 
+import static dev.langchain4j.service.spring.AiServiceWiringMode.EXPLICIT;
+
 /**
  * [Phase 1-Step 2] The Transformer.
  * Converts structural definition (List) into executable Process Map.
  */
-@AiService
+@AiService(wiringMode = EXPLICIT, chatModel = "chatLanguageModel", streamingChatModel = "streamingChatLanguageModel")
 public interface ProcessArchitect {
 
-    @SystemMessage("""
+    // Shared by the blocking and the streaming transformation
+    String SYSTEM_PROMPT = """
         You are a 'System Architect'.
         Your goal is to **TRANSFORM** a linear 'Process Definition List' into a sophisticated **Process Map**.
 
@@ -79,7 +83,9 @@ public interface ProcessArchitect {
 
         ### Input Data
         Process Definition List (JSON)
-    """)
+    """;
+
+    @SystemMessage(SYSTEM_PROMPT)
     @UserMessage("""
         Transform this definition into a Process Map.
         **REMEMBER:** 1. **Rejection Logic:** If a proposal is rejected, the Employee usually needs to modify and resubmit it. Link the 'Reject Notification' back to the 'Submit Proposal' step (node_1...).
@@ -92,23 +98,83 @@ public interface ProcessArchitect {
     """)
     ProcessResponse transformToMap(@V("definitionJson") String definitionJson);
 
-    // [Self-Correction] Error correction method
+    // [Streaming] Same transformation emitted token by token, so finished swimlanes/activities can be published early.
+    // TokenStream gets no automatic format instructions, hence the explicit key order below.
+    @SystemMessage(SYSTEM_PROMPT)
     @UserMessage("""
-        The transformed map has validation errors. Fix the JSON based on the error.
+        Transform this definition into a Process Map.
+        **REMEMBER:** 1. **Rejection Logic:** If a proposal is rejected, the Employee usually needs to modify and resubmit it. Link the 'Reject Notification' back to the 'Submit Proposal' step (node_1...).
+        2. **Implicit End:** Do not create a node object for End. Just point `nextActivityId` to `"node_end"` where the flow should stop.
+        3. **Gateway Config:** For gateways, set `nextActivityId` to `null` and define all paths in `conditions`.
+        4. **Source Ref:** Preserve `sourceRef` from input steps to output activities.
+
+        ### Output Format (Strict JSON, keys in exactly this order)
+        {
+          "processName": "...",
+          "description": "...",
+          "swimlanes": [ { "swimlaneId": "lane_...", "name": "...", "nextSwimlaneId": "lane_..." } ],
+          "activities": [
+            {
+              "id": "node_...", "type": "user_task", "label": "...", "swimlaneId": "lane_...", "description": "...",
+              "configuration": { "configType": "USER_TASK_CONFIG", "conditions": [ { "expression": "Approve", "targetActivityId": "node_..." } ] },
+              "inputMapping": {}, "nextActivityId": "node_...", "sourceRef": null
+            }
+          ]
+        }
+        - Emit `swimlanes` BEFORE `activities`, and emit activities in flow order.
+        - `type` is one of: user_task, service_task, exclusive_gateway.
+
+        [Process Definition List]
+        {{definitionJson}}
+    """)
+    TokenStream streamMap(@V("definitionJson") String definitionJson);
+
+    // [Enrichment] Optional pass over a rule-compiled map (Mode B). Topology is fixed; only wording is refined.
+    @UserMessage("""
+        The Process Map below was compiled mechanically from the definition list.
+        Refine ONLY the human-readable text:
+        - `processName` and `description` of the process.
+        - `label` and `description` of each activity (concise, business wording, same language as the input).
+        
+        ### STRICT RULES
+        1. Keep every activity `id`, `type`, `swimlaneId`, `nextActivityId` and `configuration` EXACTLY as given.
+        2. Do NOT add or remove activities or swimlanes.
+        3. Preserve `sourceRef` data.
         
-        ### Error Message
+        ### Original Definition
+        {{definitionJson}}
+        
+        ### Compiled Map
+        {{mapJson}}
+        
+        Return the refined JSON.
+    """)
+    ProcessResponse enrichMap(
+            @V("definitionJson") String definitionJson,
+            @V("mapJson") String mapJson
+    );
+
+    // [Self-Correction] Error correction method (called by ProcessRepairService with the broken nodes only)
+    @UserMessage("""
+        Some nodes of the transformed map have validation errors. Fix ONLY these nodes.
+        
+        ### Error List
         {{errorMessage}}
         
         ### Instruction for FIX
         1. If the error is about missing 'node_end' reference, ensure terminal nodes point to `"node_end"`.
         2. Do NOT create a physical node with id `"node_end"`.
-        3. Identify the broken link. Replace it with a valid ID that **ACTUALLY EXISTS**.
-        4. **Preserve `sourceRef` data during fixes.**
+        3. Identify the broken link. Replace it with a valid ID that **ACTUALLY EXISTS** (see Existing Node IDs).
+        4. Keep each node's `id` unchanged. Return ONLY the corrected nodes in `activities` (swimlanes may be empty).
+        5. **Preserve `sourceRef` data during fixes.**
         
         ### Original Definition
         {{definitionJson}}
         
-        ### Invalid Map Generated
+        ### Existing Node IDs (id: label)
+        {{validNodeIds}}
+        
+        ### Invalid Nodes
         {{invalidMapJson}}
         
         Return the CORRECTED JSON.
@@ -116,6 +182,7 @@ public interface ProcessArchitect {
     ProcessResponse fixMap(
             @V("definitionJson") String definitionJson,
             @V("invalidMapJson") String invalidMapJson,
-            @V("errorMessage") String errorMessage
+            @V("errorMessage") String errorMessage,
+            @V("validNodeIds") String validNodeIds
     );
 }
\ No newline at end of file
@@ -9,7 +9,9 @@ import dev.langchain4j.service.spring.AiService;
 
 import java.util.List;
 
-@AiService
+import static dev.langchain4j.service.spring.AiServiceWiringMode.EXPLICIT;
+
+@AiService(wiringMode = EXPLICIT, chatModel = "outlinerChatModel")
 public interface ProcessOutliner {
 
     @SystemMessage("""
@@ -1,12 +1,30 @@
 package com.example.aicopilot.config;
 
+import com.example.aicopilot.llm.CachingChatModel;
+import com.example.aicopilot.llm.GatewayChatModel;
+import com.example.aicopilot.llm.GatewayStreamingChatModel;
+import com.example.aicopilot.llm.HedgingChatModel;
+import com.example.aicopilot.llm.HedgingPolicy;
+import com.example.aicopilot.llm.LlmGateway;
+import com.example.aicopilot.llm.ProviderModels;
+import com.example.aicopilot.llm.ResponseCache;
+import dev.langchain4j.model.Tokenizer;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 @Configuration
 public class AiConfig {
@@ -14,16 +32,174 @@ public class AiConfig {
     @Value("${openai.api-key}")
     private String apiKey;
 
+    @Value("${openai.model-name:gpt-4o-mini}")
+    private String modelName;
+
+    // [Optimization] Output token budgets (max_tokens): generation time grows with every completion token
+    @Value("${copilot.llm.budget.default.output:8192}")
+    private int defaultOutputTokens;
+
+    @Value("${copilot.llm.budget.classifier.output:256}")
+    private int classifierOutputTokens;
+
+    // [Optimization] Per-agent output budgets (unset = default output budget)
+    @Value("${copilot.llm.budget.outliner.output:${copilot.llm.budget.default.output:8192}}")
+    private int outlinerOutputTokens;
+
+    @Value("${copilot.llm.budget.data-modeler.output:${copilot.llm.budget.default.output:8192}}")
+    private int dataModelerOutputTokens;
+
+    @Value("${copilot.llm.budget.form-designer.output:${copilot.llm.budget.default.output:8192}}")
+    private int formDesignerOutputTokens;
+
+    @Value("${copilot.llm.budget.flow-analyst.output:${copilot.llm.budget.default.output:8192}}")
+    private int flowAnalystOutputTokens;
+
+    @Value("${copilot.llm.budget.patcher.output:${copilot.llm.budget.default.output:8192}}")
+    private int patcherOutputTokens;
+
+    @Value("${copilot.llm.budget.suggestion.output:${copilot.llm.budget.default.output:8192}}")
+    private int suggestionOutputTokens;
+
+    // Raw provider models; replaced by the offline stub under the llm-replay profile (see LlmStubConfig)
+    @Bean
+    @Profile("!llm-replay")
+    ChatLanguageModel openAiChatModel() {
+        return buildOpenAiChatModel(defaultOutputTokens);
+    }
+
+    // Guardrail / intent / preflight answers are a few dozen tokens; a tight cap stops runaway generations
     @Bean
-    ChatLanguageModel chatLanguageModel() {
+    @Profile("!llm-replay")
+    ChatLanguageModel classifierOpenAiChatModel() {
+        return buildOpenAiChatModel(classifierOutputTokens);
+    }
+
+    private ChatLanguageModel buildOpenAiChatModel(int maxTokens) {
         return OpenAiChatModel.builder()
                 .apiKey(apiKey)
-                .modelName("gpt-4o-mini") // Fast and cost-effective model
+                .modelName(modelName) // Fast and cost-effective model
                 .temperature(0.0) // [Optimization] Deterministic response -> Speed improvement
                 .topP(0.9) // [Optimization] Limit token selection range
+                .maxTokens(maxTokens)
                 .timeout(Duration.ofSeconds(180)) // Sufficient timeout
                 // [Fix] Force JSON output mode to prevent markdown formatting errors
                 .responseFormat("json_object")
                 .build();
     }
-}
\ No newline at end of file
+
+    // Provider models for the per-agent output budgets, one per distinct max_tokens
+    @Bean
+    @Profile("!llm-replay")
+    ProviderModels providerModels() {
+        Map<Integer, ChatLanguageModel> models = new ConcurrentHashMap<>();
+        return maxTokens -> models.computeIfAbsent(maxTokens, this::buildOpenAiChatModel);
+    }
+
+    // [Optimization] Local tokenizer for prompt budgeting (PromptBudget)
+    @Bean
+    Tokenizer tokenizer() {
+        return new OpenAiTokenizer(modelName);
+    }
+
+    // [Optimization] Every agent call passes the adaptive concurrency gateway (priority lanes + AIMD limit)
+    @Bean
+    @Primary
+    ChatLanguageModel chatLanguageModel(@Qualifier("openAiChatModel") ChatLanguageModel openAiChatModel, LlmGateway llmGateway,
+                                        @Qualifier("llmCallExecutor") Executor llmCallExecutor) {
+        return new GatewayChatModel(openAiChatModel, llmGateway, llmCallExecutor);
+    }
+
+    // [Streaming] Token-level output for ProcessArchitect.streamMap (incremental map publishing)
+    @Bean
+    StreamingChatLanguageModel streamingChatLanguageModel(
+            @Qualifier("openAiStreamingChatModel") StreamingChatLanguageModel openAiStreamingChatModel, LlmGateway llmGateway) {
+        return new GatewayStreamingChatModel(openAiStreamingChatModel, llmGateway);
+    }
+
+    @Bean
+    @Profile("!llm-replay")
+    StreamingChatLanguageModel openAiStreamingChatModel() {
+        return OpenAiStreamingChatModel.builder()
+                .apiKey(apiKey)
+                .modelName(modelName)
+                .temperature(0.0)
+                .topP(0.9)
+                .maxTokens(defaultOutputTokens)
+                .timeout(Duration.ofSeconds(180))
+                .responseFormat("json_object")
+                .build();
+    }
+
+    @Bean
+    ChatLanguageModel classifierChatLanguageModel(@Qualifier("classifierOpenAiChatModel") ChatLanguageModel classifierOpenAiChatModel,
+                                                  LlmGateway llmGateway, @Qualifier("llmCallExecutor") Executor llmCallExecutor) {
+        return new GatewayChatModel(classifierOpenAiChatModel, llmGateway, llmCallExecutor);
+    }
+
+    // [Optimization] Short classifier agents answer repeated prompts from the response cache (temperature=0)
+    // and hedge slow provider responses (opt-in, copilot.llm.hedge.enabled)
+    @Bean
+    ChatLanguageModel inputGuardChatModel(@Qualifier("classifierChatLanguageModel") ChatLanguageModel classifierChatLanguageModel,
+                                          ResponseCache responseCache, HedgingPolicy hedgingPolicy) {
+        return new CachingChatModel("InputGuardAgent", modelName,
+                new HedgingChatModel("InputGuardAgent", classifierChatLanguageModel, hedgingPolicy), responseCache);
+    }
+
+    @Bean
+    ChatLanguageModel intentClassifierChatModel(@Qualifier("classifierChatLanguageModel") ChatLanguageModel classifierChatLanguageModel,
+                                                ResponseCache responseCache, HedgingPolicy hedgingPolicy) {
+        return new CachingChatModel("IntentClassifier", modelName,
+                new HedgingChatModel("IntentClassifier", classifierChatLanguageModel, hedgingPolicy), responseCache);
+    }
+
+    @Bean
+    ChatLanguageModel preflightChatModel(@Qualifier("classifierChatLanguageModel") ChatLanguageModel classifierChatLanguageModel,
+                                         ResponseCache responseCache, HedgingPolicy hedgingPolicy) {
+        return new CachingChatModel("PreflightAgent", modelName,
+                new HedgingChatModel("PreflightAgent", classifierChatLanguageModel, hedgingPolicy), responseCache);
+    }
+
+    @Bean
+    ChatLanguageModel suggestionChatModel(ProviderModels providerModels, LlmGateway llmGateway, HedgingPolicy hedgingPolicy,
+                                          @Qualifier("llmCallExecutor") Executor llmCallExecutor) {
+        return new HedgingChatModel("SuggestionAgent", budgeted(providerModels, suggestionOutputTokens, llmGateway, llmCallExecutor), hedgingPolicy);
+    }
+
+    // [Optimization] Agents with their own output budget (ProcessArchitect and AssetAnalysisService use the default)
+    @Bean
+    ChatLanguageModel outlinerChatModel(ProviderModels providerModels, LlmGateway llmGateway,
+                                        @Qualifier("llmCallExecutor") Executor llmCallExecutor) {
+        return budgeted(providerModels, outlinerOutputTokens, llmGateway, llmCallExecutor);
+    }
+
+    @Bean
+    ChatLanguageModel dataModelerChatModel(ProviderModels providerModels, LlmGateway llmGateway,
+                                           @Qualifier("llmCallExecutor") Executor llmCallExecutor) {
+        return budgeted(providerModels, dataModelerOutputTokens, llmGateway, llmCallExecutor);
+    }
+
+    @Bean
+    ChatLanguageModel formDesignerChatModel(ProviderModels providerModels, LlmGateway llmGateway,
+                                            @Qualifier("llmCallExecutor") Executor llmCallExecutor) {
+        return budgeted(providerModels, formDesignerOutputTokens, llmGateway, llmCallExecutor);
+    }
+
+    @Bean
+    ChatLanguageModel flowAnalystChatModel(ProviderModels providerModels, LlmGateway llmGateway,
+                                           @Qualifier("llmCallExecutor") Executor llmCallExecutor) {
+        return budgeted(providerModels, flowAnalystOutputTokens, llmGateway, llmCallExecutor);
+    }
+
+    // PartialModifier + ArtifactPatcher
+    @Bean
+    ChatLanguageModel patcherChatModel(ProviderModels providerModels, LlmGateway llmGateway,
+                                       @Qualifier("llmCallExecutor") Executor llmCallExecutor) {
+        return budgeted(providerModels, patcherOutputTokens, llmGateway, llmCallExecutor);
+    }
+
+    private static ChatLanguageModel budgeted(ProviderModels providerModels, int maxTokens, LlmGateway llmGateway,
+                                              Executor llmCallExecutor) {
+        return new GatewayChatModel(providerModels.withMaxTokens(maxTokens), llmGateway, llmCallExecutor);
+    }
+}
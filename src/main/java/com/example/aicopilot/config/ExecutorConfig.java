@@ -0,0 +1,141 @@
+package com.example.aicopilot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * [Optimization] Named, bounded executors instead of the single default @Async pool.
+ * <ul>
+ *     <li>orchestrationExecutor: job coordinators (runChatJob, runTransformationJob)</li>
+ *     <li>artifactExecutor: pipeline stages forked by PipelineEngine</li>
+ *     <li>preflightExecutor: intent call of the parallel preflight; no queue, a full pool falls back to sequential preflight</li>
+ *     <li>formShardExecutor: form shards (ShardedFormGenerator); a full queue runs the shard on the stage thread</li>
+ *     <li>assetIngestionExecutor: asset parsing + analysis</li>
+ *     <li>statusStreamExecutor: writes of job status SSE events (slow clients never block a pipeline thread)</li>
+ *     <li>hedgeExecutor: attempts of hedged agent calls (HedgingPolicy); no queue, a full pool runs the call unhedged</li>
+ *     <li>llmCallExecutor: blocking provider calls, so cancelled callers can abandon them (GatewayChatModel); no queue,
+ *     a full pool runs the call on the caller's thread</li>
+ * </ul>
+ * A full queue rejects the task with {@link ExecutorSaturatedException}; entry points answer 429 + Retry-After
+ * instead of queueing without limit. Exported per executor: copilot.executor.queue.depth / active (gauges),
+ * copilot.executor.queue.wait (time from submit to start), copilot.executor.rejected.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private final MeterRegistry meterRegistry;
+
+    public ExecutorConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor orchestrationExecutor(
+            @Value("${copilot.executor.orchestration.core-size:8}") int coreSize,
+            @Value("${copilot.executor.orchestration.max-size:8}") int maxSize,
+            @Value("${copilot.executor.orchestration.queue-capacity:50}") int queueCapacity) {
+        return bounded("orchestration", coreSize, maxSize, queueCapacity);
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor artifactExecutor(
+            @Value("${copilot.executor.artifact.core-size:16}") int coreSize,
+            @Value("${copilot.executor.artifact.max-size:32}") int maxSize,
+            @Value("${copilot.executor.artifact.queue-capacity:100}") int queueCapacity) {
+        return bounded("artifact", coreSize, maxSize, queueCapacity);
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor preflightExecutor(
+            @Value("${copilot.executor.preflight.core-size:4}") int coreSize,
+            @Value("${copilot.executor.preflight.max-size:16}") int maxSize,
+            @Value("${copilot.executor.preflight.queue-capacity:0}") int queueCapacity) {
+        return bounded("preflight", coreSize, maxSize, queueCapacity);
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor formShardExecutor(
+            @Value("${copilot.executor.form-shard.core-size:4}") int coreSize,
+            @Value("${copilot.executor.form-shard.max-size:8}") int maxSize,
+            @Value("${copilot.executor.form-shard.queue-capacity:50}") int queueCapacity) {
+        return bounded("form-shard", coreSize, maxSize, queueCapacity);
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor assetIngestionExecutor(
+            @Value("${copilot.executor.asset-ingestion.core-size:2}") int coreSize,
+            @Value("${copilot.executor.asset-ingestion.max-size:4}") int maxSize,
+            @Value("${copilot.executor.asset-ingestion.queue-capacity:20}") int queueCapacity) {
+        return bounded("asset-ingestion", coreSize, maxSize, queueCapacity);
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor statusStreamExecutor(
+            @Value("${copilot.executor.status-stream.core-size:4}") int coreSize,
+            @Value("${copilot.executor.status-stream.max-size:8}") int maxSize,
+            @Value("${copilot.executor.status-stream.queue-capacity:1000}") int queueCapacity) {
+        return bounded("status-stream", coreSize, maxSize, queueCapacity);
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor hedgeExecutor(
+            @Value("${copilot.executor.hedge.core-size:8}") int coreSize,
+            @Value("${copilot.executor.hedge.max-size:32}") int maxSize,
+            @Value("${copilot.executor.hedge.queue-capacity:0}") int queueCapacity) {
+        return bounded("hedge", coreSize, maxSize, queueCapacity);
+    }
+
+    // max-size should cover copilot.llm.gateway.max-limit: every admitted call takes one thread
+    @Bean
+    ThreadPoolTaskExecutor llmCallExecutor(
+            @Value("${copilot.executor.llm-call.core-size:8}") int coreSize,
+            @Value("${copilot.executor.llm-call.max-size:32}") int maxSize,
+            @Value("${copilot.executor.llm-call.queue-capacity:0}") int queueCapacity) {
+        return bounded("llm-call", coreSize, maxSize, queueCapacity);
+    }
+
+    private ThreadPoolTaskExecutor bounded(String name, int coreSize, int maxSize, int queueCapacity) {
+        // EWMA of task run time, used for the Retry-After estimate
+        AtomicLong meanRunMillis = new AtomicLong();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(Math.max(coreSize, maxSize));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.setTaskDecorator(task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                long started = System.nanoTime();
+                meterRegistry.timer("copilot.executor.queue.wait", "executor", name)
+                        .record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    long runMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    meanRunMillis.accumulateAndGet(runMillis, (prev, sample) -> prev == 0 ? sample : (prev * 9 + sample) / 10);
+                }
+            };
+        });
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            meterRegistry.counter("copilot.executor.rejected", "executor", name).increment();
+            int queued = pool.getQueue().size();
+            // time for the queue ahead of the caller to drain, at least one second
+            long drainMillis = meanRunMillis.get() * (queued + 1) / Math.max(1, pool.getMaximumPoolSize());
+            throw new ExecutorSaturatedException(name, queued, Math.max(1, TimeUnit.MILLISECONDS.toSeconds(drainMillis)));
+        });
+        // the pool is created when the container initializes the bean, so sample through the executor
+        meterRegistry.gauge("copilot.executor.queue.depth", Tags.of("executor", name), executor, ThreadPoolTaskExecutor::getQueueSize);
+        meterRegistry.gauge("copilot.executor.active", Tags.of("executor", name), executor, ThreadPoolTaskExecutor::getActiveCount);
+        return executor;
+    }
+}
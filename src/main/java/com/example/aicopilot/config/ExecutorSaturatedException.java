@@ -0,0 +1,26 @@
+package com.example.aicopilot.config;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when a bounded executor's queue is full. Carries a Retry-After estimate for the HTTP layer.
+ */
+public class ExecutorSaturatedException extends RejectedExecutionException {
+
+    private final String executor;
+    private final long retryAfterSeconds;
+
+    public ExecutorSaturatedException(String executor, int queueDepth, long retryAfterSeconds) {
+        super("Executor [" + executor + "] is saturated (" + queueDepth + " queued).");
+        this.executor = executor;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String executor() {
+        return executor;
+    }
+
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
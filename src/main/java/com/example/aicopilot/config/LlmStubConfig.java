@@ -0,0 +1,95 @@
+package com.example.aicopilot.config;
+
+import com.example.aicopilot.llm.ProviderModels;
+import com.example.aicopilot.llm.stub.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Offline LLM for load and latency testing.
+ * - llm-record: real provider calls are appended to the tape (response + latency per agent method)
+ * - llm-replay: no network; the tape is replayed and unknown prompts get synthesized, schema-valid answers
+ */
+@Configuration
+@Profile({"llm-record", "llm-replay"})
+public class LlmStubConfig {
+
+    @Bean
+    LlmTape llmTape(@Value("${copilot.llm.stub.tape:data/llm-tape.jsonl}") String tape, ObjectMapper objectMapper) {
+        return new LlmTape(Path.of(tape), objectMapper);
+    }
+
+    @Bean
+    AgentMethodResolver agentMethodResolver() {
+        return new AgentMethodResolver("com.example.aicopilot.agent");
+    }
+
+    @Bean
+    @Profile("llm-replay")
+    ReplayChatModel openAiChatModel(LlmTape llmTape, AgentMethodResolver agentMethodResolver, ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${copilot.llm.stub.latency:LOGNORMAL}") LatencyModel.Distribution distribution,
+                                    @Value("${copilot.llm.stub.fixed-latency:PT1S}") Duration fixedLatency,
+                                    @Value("${copilot.llm.stub.median-latency:PT2S}") Duration medianLatency,
+                                    @Value("${copilot.llm.stub.sigma:0.5}") double sigma) {
+        return new ReplayChatModel(llmTape, agentMethodResolver, new ResponseSynthesizer(objectMapper),
+                new LatencyModel(distribution, fixedLatency, medianLatency, sigma), meterRegistry);
+    }
+
+    @Bean
+    @Profile("llm-replay")
+    ChatLanguageModel classifierOpenAiChatModel(@Qualifier("openAiChatModel") ReplayChatModel openAiChatModel) {
+        return openAiChatModel;
+    }
+
+    @Bean
+    @Profile("llm-replay")
+    ProviderModels providerModels(@Qualifier("openAiChatModel") ReplayChatModel openAiChatModel) {
+        return maxTokens -> openAiChatModel;
+    }
+
+    @Bean
+    @Profile("llm-replay")
+    StreamingChatLanguageModel openAiStreamingChatModel(@Qualifier("openAiChatModel") ReplayChatModel openAiChatModel) {
+        return new ReplayStreamingChatModel(openAiChatModel);
+    }
+
+    // Wraps the raw provider models so recorded latency excludes gateway queueing and cache hits
+    @Bean
+    @Profile("llm-record")
+    static BeanPostProcessor llmRecordingPostProcessor(ObjectProvider<LlmTape> llmTape,
+                                                       ObjectProvider<AgentMethodResolver> agentMethodResolver) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (("openAiChatModel".equals(beanName) || "classifierOpenAiChatModel".equals(beanName))
+                        && bean instanceof ChatLanguageModel model) {
+                    return new RecordingChatModel(model, llmTape.getObject(), agentMethodResolver.getObject());
+                }
+                if ("openAiStreamingChatModel".equals(beanName) && bean instanceof StreamingChatLanguageModel model) {
+                    return new RecordingStreamingChatModel(model, llmTape.getObject(), agentMethodResolver.getObject());
+                }
+                if ("providerModels".equals(beanName) && bean instanceof ProviderModels models) {
+                    Map<Integer, ChatLanguageModel> recording = new ConcurrentHashMap<>();
+                    return (ProviderModels) maxTokens -> recording.computeIfAbsent(maxTokens, budget ->
+                            new RecordingChatModel(models.withMaxTokens(budget), llmTape.getObject(), agentMethodResolver.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.aicopilot.controller;
+
+import com.example.aicopilot.config.ExecutorSaturatedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * [Optimization] Admission control: work rejected by a saturated executor is answered with 429 + Retry-After
+ * instead of being queued without limit.
+ */
+@Slf4j
+@RestControllerAdvice
+public class AdmissionControlAdvice {
+
+    @Value("${copilot.executor.default-retry-after-seconds:5}")
+    private long defaultRetryAfterSeconds;
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, Object>> handleRejected(RejectedExecutionException e) {
+        long retryAfter = defaultRetryAfterSeconds;
+        String executor = "unknown";
+        // Spring wraps the pool's rejection in a TaskRejectedException
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ExecutorSaturatedException saturated) {
+                retryAfter = saturated.retryAfterSeconds();
+                executor = saturated.executor();
+                break;
+            }
+        }
+        log.warn("Request rejected, executor [{}] is saturated. Retry after {}s.", executor, retryAfter);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(Map.of(
+                        "message", "Server is busy. Please retry later.",
+                        "retryAfterSeconds", retryAfter
+                ));
+    }
+}
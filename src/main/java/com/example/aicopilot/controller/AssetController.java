@@ -12,6 +12,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,8 +29,13 @@ public class AssetController {
         // 1. 등록 (ID 발급)
         Asset asset = assetAnalysisService.registerAsset(file);
 
-        // 2. 비동기 분석 시작
-        assetAnalysisService.processAssetAsync(asset.id(), file);
+        // 2. 비동기 분석 시작 (수집 풀이 가득 차면 등록을 취소하고 429 응답)
+        try {
+            assetAnalysisService.processAssetAsync(asset.id(), file);
+        } catch (RejectedExecutionException e) {
+            assetRepository.delete(asset.id());
+            throw e;
+        }
 
         // 업로드 직후에는 ID와 상태만 반환해도 충분함
         return ResponseEntity.ok(Map.of(
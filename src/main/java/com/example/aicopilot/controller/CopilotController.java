@@ -13,17 +13,28 @@ import com.example.aicopilot.dto.suggestion.AutoDiscoveryRequest;
 import com.example.aicopilot.dto.suggestion.SuggestionResponse;
 import com.example.aicopilot.service.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -36,6 +47,13 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class CopilotController {
 
+    // 클라이언트(브라우저 탭 등) 식별자. 같은 클라이언트의 새 작업은 이전 작업을 대체합니다.
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
+    // [Optimization] 공정 분배(fair-share) 스케줄링 단위. 없으면 X-Client-Id, 그것도 없으면 원격 주소 기준
+    private static final String API_KEY_HEADER = "X-Api-Key";
+    // 상태 조회는 항상 재검증 (ETag/버전 기반 304)
+    private static final CacheControl STATUS_CACHE_CONTROL = CacheControl.maxAge(0, TimeUnit.SECONDS).cachePrivate().mustRevalidate();
+
     private final WorkflowOrchestrator orchestrator;
     private final JobRepository jobRepository;
     private final SuggestionAgent suggestionAgent;
@@ -44,6 +62,11 @@ public class CopilotController {
     private final FormUXDesigner formUXDesigner;
     private final DataContextService dataContextService;
     private final AssetAnalysisService assetAnalysisService;
+    private final JobCancellationRegistry cancellation;
+    private final RequestCoalescer requestCoalescer;
+    private final FairShareScheduler fairShareScheduler;
+    private final JobStatusStreamService jobStatusStreamService;
+    private final JobStatusWaiters jobStatusWaiters;
     private final ObjectMapper objectMapper;
 
     /**
@@ -51,17 +74,18 @@ public class CopilotController {
      * 의도 분석 및 가드레일 검증을 거쳐 적절한 에이전트를 비동기로 할당합니다.
      */
     @PostMapping("/chat")
-    public ResponseEntity<ChatResponse> chatWithAi(@RequestBody ChatRequest request) {
-        String jobId = UUID.randomUUID().toString();
-
-        // 작업 초기화 (Progress Steps 리스트가 빈 상태로 시작)
-        jobRepository.initJob(jobId);
+    public ResponseEntity<ChatResponse> chatWithAi(@RequestBody ChatRequest request,
+                                                   @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId,
+                                                   @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+                                                   HttpServletRequest httpRequest) {
+        // 비동기 오케스트레이션 실행 (클라이언트별 공정 분배 큐를 거침)
+        // [Optimization] 같은 요청이 이미 실행 중이면 새 실행 없이 그 작업을 가리키는 jobId(alias)를 발급
+        String jobId = requestCoalescer.submitJob("chat", request, runId ->
+                fairShareScheduler.submit(fairShareKey(apiKey, clientId, httpRequest), runId, () -> orchestrator.runChatJob(runId, request)));
+        cancellation.supersede(clientId, jobId);
 
         log.info("Starting AI Chat Job [{}]. User Prompt: '{}'", jobId, request.userPrompt());
 
-        // 비동기 오케스트레이션 실행
-        orchestrator.runChatJob(jobId, request);
-
         // 즉시 Job ID 반환하여 프론트엔드가 폴링을 시작할 수 있게 함
         return ResponseEntity.accepted().body(new ChatResponse(
                 null,
@@ -74,12 +98,15 @@ public class CopilotController {
      * [Refactor] 오케스트레이터의 퀵스타트 전용 메서드를 호출합니다.
      */
     @PostMapping("/start")
-    public ResponseEntity<Map<String, String>> startJob(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Map<String, String>> startJob(@RequestBody Map<String, String> request,
+                                                        @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId,
+                                                        @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+                                                        HttpServletRequest httpRequest) {
         String prompt = request.get("userPrompt");
         String jobId = UUID.randomUUID().toString();
         jobRepository.initJob(jobId);
 
-        orchestrator.runQuickStartJob(jobId, prompt);
+        submit(jobId, clientId, fairShareKey(apiKey, clientId, httpRequest), () -> orchestrator.runQuickStartJob(jobId, prompt));
 
         return ResponseEntity.accepted().body(Map.of(
                 "jobId", jobId,
@@ -92,40 +119,216 @@ public class CopilotController {
      * [Fix] 의도 분석을 건너뛰고 즉시 변환 단계로 진입하는 로직을 호출합니다.
      */
     @PostMapping("/transform")
-    public ResponseEntity<?> transformJob(@RequestBody ProcessDefinition definition) {
+    public ResponseEntity<?> transformJob(@RequestBody ProcessDefinition definition,
+                                          @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId,
+                                          @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+                                          HttpServletRequest httpRequest) {
         String jobId = UUID.randomUUID().toString();
         try {
             String definitionJson = objectMapper.writeValueAsString(definition);
             jobRepository.initJob(jobId);
 
             // 오케스트레이터의 직접 변환 메서드 호출
-            orchestrator.runTransformationJob(jobId, definitionJson);
+            submit(jobId, clientId, fairShareKey(apiKey, clientId, httpRequest), () -> orchestrator.runTransformationJob(jobId, definitionJson));
 
             return ResponseEntity.accepted().body(Map.of(
                     "jobId", jobId,
                     "message", "Direct Transformation Job Started"
             ));
+        } catch (RejectedExecutionException e) {
+            throw e; // 429 (AdmissionControlAdvice)
         } catch (Exception e) {
             log.error("Transform request failed", e);
             return ResponseEntity.badRequest().body("Invalid Process Definition JSON format.");
         }
     }
 
+    /**
+     * [Optimization] 클라이언트 큐(또는 오케스트레이션 풀)가 가득 차면 작업을 남기지 않고 거절합니다 (AdmissionControlAdvice가 429로 응답).
+     * 접수된 경우에만 같은 클라이언트의 이전 작업을 대체(취소)합니다.
+     */
+    private void submit(String jobId, String clientId, String fairShareKey, Runnable asyncStart) {
+        try {
+            fairShareScheduler.submit(fairShareKey, jobId, asyncStart);
+        } catch (RejectedExecutionException e) {
+            jobRepository.remove(jobId);
+            throw e;
+        }
+        cancellation.supersede(clientId, jobId);
+    }
+
+    // 헤더가 없는 요청은 원격 주소별로 묶음 (프록시 뒤에서는 server.forward-headers-strategy 설정 필요)
+    private static String fairShareKey(String apiKey, String clientId, HttpServletRequest httpRequest) {
+        if (apiKey != null && !apiKey.isBlank()) return apiKey;
+        if (clientId != null && !clientId.isBlank()) return clientId;
+        return FairShareScheduler.ANONYMOUS + ":" + httpRequest.getRemoteAddr();
+    }
+
     /**
      * 작업의 현재 상태(진행 단계, 결과물)를 조회합니다.
+     * [Optimization] If-None-Match가 현재 버전과 같으면 상태를 만들지 않고 304를 반환합니다.
      */
     @GetMapping("/status/{jobId}")
-    public ResponseEntity<JobStatus> getStatus(@PathVariable String jobId) {
+    public ResponseEntity<JobStatus> getStatus(@PathVariable String jobId,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return statusResponse(jobId, ifNoneMatch, -1);
+    }
+
+    /**
+     * [New] Long-poll: {@code ?waitForVersion=N&timeout=30s}. 작업이 버전 N을 넘어설 때까지(또는 timeout까지) 요청을 보류합니다.
+     * 시간 안에 바뀌지 않으면 304를 반환합니다. timeout은 {@code 30s}, {@code 500ms}, {@code PT30S}, 단위 없는 초({@code 30}) 형식.
+     */
+    @GetMapping(value = "/status/{jobId}", params = "waitForVersion")
+    public DeferredResult<ResponseEntity<JobStatus>> awaitStatus(@PathVariable String jobId,
+                                                                 @RequestParam long waitForVersion,
+                                                                 @RequestParam(required = false) String timeout,
+                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return jobStatusWaiters.await(jobId, waitForVersion, parseTimeout(timeout),
+                () -> statusResponse(jobId, ifNoneMatch, waitForVersion));
+    }
+
+    /**
+     * [Optimization] Delta 조회: {@code ?since=N}. 버전 N 이후 바뀐 진행 단계, 상태/메시지, 그 이후 저장된 결과물만 반환합니다.
+     * 버전이 N 그대로면 304를 반환합니다.
+     */
+    @GetMapping(value = "/status/{jobId}", params = "since")
+    public ResponseEntity<JobStatusDelta> getStatusDelta(@PathVariable String jobId, @RequestParam long since) {
+        return deltaResponse(jobId, since);
+    }
+
+    /**
+     * [Optimization] Long-poll + delta: {@code ?since=N&waitForVersion=N&timeout=30s}.
+     */
+    @GetMapping(value = "/status/{jobId}", params = {"since", "waitForVersion"})
+    public DeferredResult<ResponseEntity<JobStatusDelta>> awaitStatusDelta(@PathVariable String jobId,
+                                                                           @RequestParam long since,
+                                                                           @RequestParam long waitForVersion,
+                                                                           @RequestParam(required = false) String timeout) {
+        return jobStatusWaiters.await(jobId, waitForVersion, parseTimeout(timeout), () -> deltaResponse(jobId, since));
+    }
+
+    // Duration 바인딩은 ISO-8601(PT30S)만 받으므로 직접 파싱 (30s / 500ms / PT30S / 30 = 초)
+    private static Duration parseTimeout(String timeout) {
+        if (timeout == null || timeout.isBlank()) return null;
+        try {
+            return DurationStyle.detectAndParse(timeout.trim(), ChronoUnit.SECONDS);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid timeout: " + timeout);
+        }
+    }
+
+    private ResponseEntity<JobStatusDelta> deltaResponse(String jobId, long since) {
+        long version = jobRepository.version(jobId);
+        if (version < 0) return ResponseEntity.notFound().build();
+
+        if (version == since) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"" + version + "\"").cacheControl(STATUS_CACHE_CONTROL).build();
+        }
+        JobStatusDelta delta = jobRepository.findChangesSince(jobId, since);
+        if (delta == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok()
+                .eTag("\"" + delta.version() + "\"")
+                .cacheControl(STATUS_CACHE_CONTROL)
+                .body(delta);
+    }
+
+    /**
+     * @param knownVersion 클라이언트가 이미 가진 버전 (-1: 없음). If-None-Match와 함께 304 판단에 사용
+     */
+    private ResponseEntity<JobStatus> statusResponse(String jobId, String ifNoneMatch, long knownVersion) {
+        long version = jobRepository.version(jobId);
+        if (version < 0) return ResponseEntity.notFound().build();
+
+        String etag = "\"" + version + "\"";
+        if (version == knownVersion || etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(STATUS_CACHE_CONTROL).build();
+        }
         JobStatus status = jobRepository.findById(jobId);
         if (status == null) return ResponseEntity.notFound().build();
-
-        String etag = "\"" + status.version() + "\"";
         return ResponseEntity.ok()
-                .eTag(etag)
-                .cacheControl(CacheControl.maxAge(0, TimeUnit.SECONDS).cachePrivate().mustRevalidate())
+                .eTag("\"" + status.version() + "\"")
+                .cacheControl(STATUS_CACHE_CONTROL)
                 .body(status);
     }
 
+    // If-None-Match: "*", 목록("1", "2"), 약한 비교(W/"3") 지원
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * [New] 작업 상태 SSE 스트림. 버전이 바뀔 때만 이벤트를 보내고(id = version), 종료 상태 이벤트 후 스트림을 닫습니다.
+     * 재연결 시 Last-Event-ID 이후의 변경만 받습니다.
+     */
+    @GetMapping(value = "/status/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStatus(@PathVariable String jobId,
+                                                   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (jobRepository.version(jobId) < 0) return ResponseEntity.notFound().build();
+
+        long since = -1;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                since = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed Last-Event-ID [{}] for job [{}].", lastEventId, jobId);
+            }
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header("X-Accel-Buffering", "no") // 프록시(nginx) 버퍼링 방지
+                .body(jobStatusStreamService.open(jobId, since));
+    }
+
+    /**
+     * [New] 작업 취소. 진행 중인 LLM 호출을 중단하고 남은 단계를 건너뜁니다.
+     * 이미 종료된 작업은 409를 반환합니다.
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<JobStatus> cancelJob(@PathVariable String jobId) {
+        JobStatus status = jobRepository.findById(jobId);
+        if (status == null) return ResponseEntity.notFound().build();
+
+        if (!cancellation.cancel(jobId, "Cancelled by user.")) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(jobRepository.findById(jobId));
+        }
+        log.info("Job [{}] cancelled by user.", jobId);
+        return ResponseEntity.accepted().body(jobRepository.findById(jobId));
+    }
+
+    /**
+     * [New] 실패/취소된 작업 재개. 체크포인트의 완료 단계 결과를 재사용하고 첫 미완료 단계부터 다시 실행합니다.
+     * 체크포인트가 없거나(성공/중단 종료, 만료) 작업이 아직 진행 중이면 409를 반환합니다.
+     */
+    @PostMapping("/jobs/{jobId}/resume")
+    public ResponseEntity<JobStatus> resumeJob(@PathVariable String jobId,
+                                               @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId,
+                                               @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+                                               HttpServletRequest httpRequest) {
+        JobStatus status = jobRepository.findById(jobId);
+        if (status == null) return ResponseEntity.notFound().build();
+
+        // coalesced request: the checkpoint belongs to the shared run
+        String runId = jobRepository.aliasTarget(jobId) != null ? jobRepository.aliasTarget(jobId) : jobId;
+        if (!orchestrator.canResume(runId) || !jobRepository.reopen(runId, "Waiting for job...")) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(status);
+        }
+        try {
+            fairShareScheduler.submit(fairShareKey(apiKey, clientId, httpRequest), runId, () -> orchestrator.resumeJob(runId));
+        } catch (RejectedExecutionException e) {
+            // 재개 전 상태(FAILED/CANCELLED)로 되돌림
+            jobRepository.updateState(runId, status.state(), status.message());
+            throw e;
+        }
+        log.info("Job [{}] resumed from checkpoint.", runId);
+        return ResponseEntity.accepted().body(jobRepository.findById(jobId));
+    }
+
     /**
      * 캔버스 내 노드 선택 시 AI 제안 엔드포인트.
      */
@@ -164,7 +367,12 @@ public class CopilotController {
             String nodesJson = objectMapper.writeValueAsString(graphSnapshot.get("nodes"));
             String edgesJson = objectMapper.writeValueAsString(graphSnapshot.get("edges"));
 
-            AnalysisReport report = flowAnalyst.analyzeGraph(nodesJson, edgesJson);
+            // [Optimization] 동일한 그래프의 동시 분석 요청은 한 번의 호출 결과를 공유
+            Map<String, Object> graph = new HashMap<>();
+            graph.put("nodes", graphSnapshot.get("nodes"));
+            graph.put("edges", graphSnapshot.get("edges"));
+            AnalysisReport report = requestCoalescer.execute("analyze", graph,
+                    () -> flowAnalyst.analyzeGraph(nodesJson, edgesJson));
             return ResponseEntity.ok(report.results());
         } catch (Exception e) {
             log.error("Structural analysis failed", e);
@@ -204,8 +412,14 @@ public class CopilotController {
         if (prompt == null || prompt.trim().isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
-        FormDefinitions form = suggestionAgent.suggestFormDefinition(prompt);
-        return ResponseEntity.ok(form);
+        try {
+            FormDefinitions form = requestCoalescer.execute("suggest-form", Map.of("prompt", prompt),
+                    () -> suggestionAgent.suggestFormDefinition(prompt));
+            return ResponseEntity.ok(form);
+        } catch (Exception e) {
+            log.error("Form suggestion failed", e);
+            return ResponseEntity.internalServerError().build();
+        }
     }
 
     /**
@@ -0,0 +1,30 @@
+package com.example.aicopilot.dto;
+
+import com.example.aicopilot.dto.dataEntities.DataEntitiesGroup;
+import com.example.aicopilot.dto.dataEntities.DataEntity;
+import com.example.aicopilot.dto.form.FormDefinitions;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+import java.util.List;
+
+/**
+ * [New] ArtifactPatcher 응답: 변경된 노드의 데이터 엔티티와, 해당 노드를 참조하는 폼만 담습니다.
+ */
+public record ArtifactPatchResponse(
+        @JsonProperty("entities")
+        @JsonPropertyDescription("""
+                Data entities captured at the CHANGED nodes only. Every entity's 'sourceNodeId' must be one of the changed node ids.
+                Do NOT repeat entities that already exist.
+                """)
+        List<DataEntity> entities,
+        @JsonProperty("groups")
+        @JsonPropertyDescription("Groups for the new entities. 'entityIds' may only refer to ids in 'entities'.")
+        List<DataEntitiesGroup> groups,
+        @JsonProperty("formDefinitions")
+        @JsonPropertyDescription("""
+                Updated versions of the given stale forms (same 'formName'), plus a new form for each new USER_TASK that needs one.
+                """)
+        List<FormDefinitions> formDefinitions
+) {
+}
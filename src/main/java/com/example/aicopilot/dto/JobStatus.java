@@ -31,10 +31,14 @@ public record JobStatus(
 
         ProcessResponse processResponse,
         DataEntitiesResponse dataEntitiesResponse,
-        FormResponse formResponse
+        FormResponse formResponse,
+
+        // [New] 단계별 프롬프트/완료 토큰 수 (Key: Stage Name)
+        Map<String, StageTokenUsage> tokenUsage
 ) {
     public enum State {
-        PENDING, PROCESSING, COMPLETED, FAILED
+        PENDING, PROCESSING, COMPLETED, FAILED,
+        CANCELLED // [New] 사용자 취소 또는 같은 클라이언트의 새 요청으로 대체됨
     }
 
     public static JobStatus init(String jobId) {
@@ -49,7 +53,8 @@ public record JobStatus(
                 0L,
                 new ArrayList<>(),
                 new ArrayList<>(), // 초기 빈 리스트
-                null, null, null
+                null, null, null,
+                Map.of()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.aicopilot.dto;
+
+import com.example.aicopilot.dto.analysis.AnalysisResult;
+import com.example.aicopilot.dto.dataEntities.DataEntitiesResponse;
+import com.example.aicopilot.dto.form.FormResponse;
+import com.example.aicopilot.dto.process.ProcessResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * [New] 버전 {@code since} 이후 바뀐 항목만 담은 작업 상태 ({@code GET /status/{jobId}?since=N}).
+ * <p>
+ * state/message/version 등 헤더는 항상 포함되고, 나머지는 since 이후 바뀐 것만 포함됩니다 (바뀌지 않은 필드는 생략).
+ * progressSteps/stageDurations/tokenUsage는 바뀐 항목만 담기므로 클라이언트는 id/key 기준으로 병합해야 합니다.
+ * 클라이언트 버전이 서버보다 앞서 있으면 since = -1 (전체)로 응답합니다.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobStatusDelta(
+        String jobId,
+        long since,
+        long version,
+        JobStatus.State state,
+        String message,
+        String lastUpdatedStage,
+        long totalElapsedMillis,
+
+        List<ProgressStep> progressSteps,
+        Map<String, Long> stageDurations,
+        Map<String, StageTokenUsage> tokenUsage,
+
+        List<AnalysisResult> analysisResults,
+        ProcessResponse processResponse,
+        DataEntitiesResponse dataEntitiesResponse,
+        FormResponse formResponse
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.aicopilot.dto;
+
+/**
+ * Provider-reported token counts of one pipeline stage (sum over its LLM calls; cache hits count as 0).
+ */
+public record StageTokenUsage(long promptTokens, long completionTokens) {
+
+    public StageTokenUsage plus(long prompt, long completion) {
+        return new StageTokenUsage(promptTokens + prompt, completionTokens + completion);
+    }
+}
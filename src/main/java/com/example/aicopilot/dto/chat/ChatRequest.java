@@ -11,5 +11,8 @@ public record ChatRequest(
         List<String> selectedAssetIds,
 
         // [New] The current process map in JSON format for the MODIFY intent.
-        String currentProcessJson
+        String currentProcessJson,
+
+        // [New] Optional. The job whose map is being modified; its data entities and forms are reused for untouched nodes.
+        String baseJobId
 ) {}
\ No newline at end of file
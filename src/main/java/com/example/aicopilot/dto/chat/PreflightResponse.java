@@ -0,0 +1,14 @@
+package com.example.aicopilot.dto.chat;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/**
+ * Fused guardrail + intent result returned by PreflightAgent in a single call.
+ */
+public record PreflightResponse(
+        @JsonPropertyDescription("Domain guardrail decision for the user input.")
+        ValidationResult validation,
+
+        @JsonPropertyDescription("Intent classification. Only meaningful when validation.status is VALID.")
+        IntentResponse intent
+) {}
@@ -0,0 +1,62 @@
+package com.example.aicopilot.intent;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hashed n-gram features for intent classification.
+ * Word unigrams/bigrams plus character 3~5-grams are hashed into a fixed space and L2-normalized.
+ */
+final class IntentFeatures {
+
+    static final int DIMENSION = 1 << 18;
+
+    final int[] indices;
+    final float[] values;
+
+    private IntentFeatures(int[] indices, float[] values) {
+        this.indices = indices;
+        this.values = values;
+    }
+
+    static IntentFeatures extract(String text) {
+        String normalized = text == null ? "" : text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        Map<Integer, Float> counts = new HashMap<>();
+
+        String[] words = normalized.isEmpty() ? new String[0] : normalized.split(" ");
+        for (int i = 0; i < words.length; i++) {
+            add(counts, "w:" + words[i]);
+            if (i + 1 < words.length) add(counts, "b:" + words[i] + "_" + words[i + 1]);
+        }
+
+        String padded = " " + normalized + " ";
+        for (int n = 3; n <= 5; n++) {
+            for (int i = 0; i + n <= padded.length(); i++) {
+                add(counts, "c:" + padded.substring(i, i + n));
+            }
+        }
+
+        int[] indices = new int[counts.size()];
+        float[] values = new float[counts.size()];
+        double norm = 0;
+        int k = 0;
+        for (Map.Entry<Integer, Float> entry : counts.entrySet()) {
+            indices[k] = entry.getKey();
+            values[k] = entry.getValue();
+            norm += values[k] * values[k];
+            k++;
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < values.length; i++) values[i] *= scale;
+        }
+        return new IntentFeatures(indices, values);
+    }
+
+    private static void add(Map<Integer, Float> counts, String feature) {
+        // String.hashCode is specified by the JLS, so hashed indices are stable between training and serving JVMs
+        int index = Math.floorMod(feature.hashCode() * 0x9E3779B1, DIMENSION);
+        counts.merge(index, 1f, Float::sum);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.aicopilot.intent;
+
+import com.example.aicopilot.dto.chat.IntentType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Multinomial logistic regression over {@link IntentFeatures}, one weight row per {@link IntentType}.
+ */
+final class IntentModel {
+
+    private static final int MAGIC = 0x49434D31; // "ICM1"
+
+    final IntentType[] classes;
+    final float[][] weights;
+    final float[] bias;
+
+    private IntentModel(IntentType[] classes, float[][] weights, float[] bias) {
+        this.classes = classes;
+        this.weights = weights;
+        this.bias = bias;
+    }
+
+    static IntentModel untrained(IntentType[] classes) {
+        return new IntentModel(classes, new float[classes.length][IntentFeatures.DIMENSION], new float[classes.length]);
+    }
+
+    /**
+     * Softmax probabilities in {@link #classes} order.
+     */
+    double[] probabilities(IntentFeatures features) {
+        double[] scores = new double[classes.length];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int c = 0; c < classes.length; c++) {
+            double score = bias[c];
+            float[] row = weights[c];
+            for (int i = 0; i < features.indices.length; i++) {
+                score += row[features.indices[i]] * features.values[i];
+            }
+            scores[c] = score;
+            max = Math.max(max, score);
+        }
+        double sum = 0;
+        for (int c = 0; c < scores.length; c++) {
+            scores[c] = Math.exp(scores[c] - max);
+            sum += scores[c];
+        }
+        for (int c = 0; c < scores.length; c++) scores[c] /= sum;
+        return scores;
+    }
+
+    void save(Path path) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        try (OutputStream file = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new GZIPOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(IntentFeatures.DIMENSION);
+            out.writeInt(classes.length);
+            for (int c = 0; c < classes.length; c++) {
+                out.writeUTF(classes[c].name());
+                out.writeFloat(bias[c]);
+                int nonZero = 0;
+                for (float w : weights[c]) if (w != 0f) nonZero++;
+                out.writeInt(nonZero);
+                for (int i = 0; i < weights[c].length; i++) {
+                    if (weights[c][i] != 0f) {
+                        out.writeInt(i);
+                        out.writeFloat(weights[c][i]);
+                    }
+                }
+            }
+        }
+    }
+
+    static IntentModel load(Path path) throws IOException {
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new GZIPInputStream(file))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not an intent model file: " + path);
+            if (in.readInt() != IntentFeatures.DIMENSION) throw new IOException("Feature dimension mismatch: " + path);
+            IntentType[] classes = new IntentType[in.readInt()];
+            float[] bias = new float[classes.length];
+            float[][] rows = new float[classes.length][];
+            for (int c = 0; c < classes.length; c++) {
+                classes[c] = IntentType.valueOf(in.readUTF());
+                bias[c] = in.readFloat();
+                rows[c] = new float[IntentFeatures.DIMENSION];
+                int nonZero = in.readInt();
+                for (int k = 0; k < nonZero; k++) {
+                    rows[c][in.readInt()] = in.readFloat();
+                }
+            }
+            return new IntentModel(classes, rows, bias);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.aicopilot.intent;
+
+import com.example.aicopilot.dto.chat.IntentType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Offline trainer for the local intent model.
+ * Reads the prompt/intent pairs logged by {@link IntentTrainingLog} (LLM decisions from the job history)
+ * and writes the model file loaded by {@link LocalIntentClassifier}.
+ *
+ * <pre>
+ * java -cp aicopilot.jar -Dloader.main=com.example.aicopilot.intent.IntentModelTrainer \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher data/intent-log.jsonl data/intent-model.bin [threshold]
+ * </pre>
+ */
+public class IntentModelTrainer {
+
+    private static final int EPOCHS = 12;
+    private static final double LEARNING_RATE = 0.5;
+    private static final double L2 = 1e-6;
+
+    record Example(IntentFeatures features, int label) {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: IntentModelTrainer <training-log.jsonl> <model-output> [threshold]");
+            System.exit(1);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.85;
+
+        IntentType[] classes = IntentType.values();
+        List<Example> examples = readExamples(Path.of(args[0]));
+        if (examples.isEmpty()) {
+            System.err.println("No training examples found in " + args[0]);
+            System.exit(1);
+        }
+        Collections.shuffle(examples, new Random(42));
+
+        // 90/10 hold-out split for the report, then the final model is trained on everything
+        int split = Math.max(1, examples.size() * 9 / 10);
+        List<Example> train = examples.subList(0, split);
+        List<Example> holdOut = examples.subList(split, examples.size());
+        if (!holdOut.isEmpty()) {
+            report(train(train, classes), holdOut, threshold);
+        }
+
+        IntentModel model = train(examples, classes);
+        model.save(Path.of(args[1]));
+        System.out.printf("Trained on %d examples -> %s%n", examples.size(), args[1]);
+    }
+
+    static IntentModel train(List<Example> examples, IntentType[] classes) {
+        IntentModel model = IntentModel.untrained(classes);
+        List<Example> order = new ArrayList<>(examples);
+        Random random = new Random(7);
+        for (int epoch = 0; epoch < EPOCHS; epoch++) {
+            Collections.shuffle(order, random);
+            double rate = LEARNING_RATE / (1 + epoch);
+            for (Example example : order) {
+                double[] p = model.probabilities(example.features());
+                for (int c = 0; c < classes.length; c++) {
+                    double gradient = p[c] - (c == example.label() ? 1 : 0);
+                    float[] row = model.weights[c];
+                    int[] idx = example.features().indices;
+                    float[] val = example.features().values;
+                    for (int i = 0; i < idx.length; i++) {
+                        row[idx[i]] -= (float) (rate * (gradient * val[i] + L2 * row[idx[i]]));
+                    }
+                    model.bias[c] -= (float) (rate * gradient);
+                }
+            }
+        }
+        return model;
+    }
+
+    private static void report(IntentModel model, List<Example> holdOut, double threshold) {
+        int correct = 0, confident = 0, confidentCorrect = 0;
+        for (Example example : holdOut) {
+            double[] p = model.probabilities(example.features());
+            int best = argMax(p);
+            if (best == example.label()) correct++;
+            if (p[best] >= threshold) {
+                confident++;
+                if (best == example.label()) confidentCorrect++;
+            }
+        }
+        System.out.printf("Hold-out accuracy: %.3f (%d examples)%n", (double) correct / holdOut.size(), holdOut.size());
+        System.out.printf("At threshold %.2f: coverage %.3f, precision %.3f%n", threshold,
+                (double) confident / holdOut.size(), confident == 0 ? 0.0 : (double) confidentCorrect / confident);
+    }
+
+    static int argMax(double[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++) if (values[i] > values[best]) best = i;
+        return best;
+    }
+
+    private static List<Example> readExamples(Path log) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Example> examples = new ArrayList<>();
+        for (String line : Files.readAllLines(log)) {
+            if (line.isBlank()) continue;
+            IntentTrainingLog.Entry entry = objectMapper.readValue(line, IntentTrainingLog.Entry.class);
+            if (entry.prompt() == null || entry.intent() == null) continue;
+            examples.add(new Example(IntentFeatures.extract(entry.prompt()), entry.intent().ordinal()));
+        }
+        return examples;
+    }
+}
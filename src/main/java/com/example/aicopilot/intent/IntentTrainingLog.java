@@ -0,0 +1,83 @@
+package com.example.aicopilot.intent;
+
+import com.example.aicopilot.dto.chat.IntentType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only JSONL log of LLM intent decisions; the training set for {@link IntentModelTrainer}.
+ * <p>
+ * Off by default: the log contains raw user prompts, so enable it only where storing them is acceptable.
+ * The file is rotated at {@code copilot.intent.training-log-max-size} into {@code <file>.1 .. <file>.N}
+ * ({@code copilot.intent.training-log-max-files}); the oldest file is deleted.
+ */
+@Slf4j
+@Component
+public class IntentTrainingLog {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final int maxFiles;
+    // guarded by this
+    private long size = -1;
+
+    public record Entry(String prompt, IntentType intent, long timestamp) {}
+
+    public IntentTrainingLog(@Value("${copilot.intent.training-log:}") String path,
+                             @Value("${copilot.intent.training-log-max-size:10MB}") DataSize maxSize,
+                             @Value("${copilot.intent.training-log-max-files:3}") int maxFiles,
+                             ObjectMapper objectMapper) {
+        this.path = path.isBlank() ? null : Path.of(path);
+        this.maxBytes = maxSize.toBytes();
+        this.maxFiles = maxFiles;
+        this.objectMapper = objectMapper;
+    }
+
+    public void record(String prompt, IntentType intent) {
+        if (path == null || prompt == null || intent == null) return;
+        try {
+            byte[] line = (objectMapper.writeValueAsString(new Entry(prompt, intent, System.currentTimeMillis())) + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            synchronized (this) {
+                if (size < 0) {
+                    if (path.getParent() != null) Files.createDirectories(path.getParent());
+                    size = Files.exists(path) ? Files.size(path) : 0;
+                }
+                if (size > 0 && size + line.length > maxBytes) rotate();
+                Files.write(path, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                size += line.length;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to append intent training example: {}", e.getMessage());
+        }
+    }
+
+    // caller holds the monitor: <file>.N-1 -> <file>.N, ..., <file> -> <file>.1 (maxFiles 0: just truncate)
+    private void rotate() throws IOException {
+        if (maxFiles <= 0) {
+            Files.deleteIfExists(path);
+        } else {
+            Files.deleteIfExists(rotated(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                if (Files.exists(rotated(i))) Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        size = 0;
+    }
+
+    private Path rotated(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.aicopilot.intent;
+
+import com.example.aicopilot.dto.chat.IntentType;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * In-JVM intent classifier (hashed n-grams + logistic regression).
+ * Answers only when its top probability reaches the threshold; otherwise the caller falls back to the LLM.
+ */
+@Slf4j
+@Component
+public class LocalIntentClassifier {
+
+    private final IntentModel model;
+    private final double threshold;
+    private final MeterRegistry meterRegistry;
+
+    public LocalIntentClassifier(@Value("${copilot.intent.local.model-path:}") String modelPath,
+                                 @Value("${copilot.intent.local.threshold:0.85}") double threshold,
+                                 MeterRegistry meterRegistry) {
+        this.model = loadModel(modelPath);
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Optional<IntentType> classify(String prompt) {
+        if (model == null) return Optional.empty();
+
+        double[] p = model.probabilities(IntentFeatures.extract(prompt));
+        int best = IntentModelTrainer.argMax(p);
+        if (p[best] < threshold) {
+            meterRegistry.counter("copilot.intent.local", "result", "fallback").increment();
+            return Optional.empty();
+        }
+        meterRegistry.counter("copilot.intent.local", "result", "hit").increment();
+        return Optional.of(model.classes[best]);
+    }
+
+    private static IntentModel loadModel(String modelPath) {
+        if (modelPath.isBlank() || !Files.exists(Path.of(modelPath))) {
+            log.info("Local intent model not configured. All intents are classified by the LLM.");
+            return null;
+        }
+        try {
+            IntentModel loaded = IntentModel.load(Path.of(modelPath));
+            log.info("Local intent model loaded from {}", modelPath);
+            return loaded;
+        } catch (IOException e) {
+            log.warn("Failed to load local intent model {}: {}", modelPath, e.getMessage());
+            return null;
+        }
+    }
+}
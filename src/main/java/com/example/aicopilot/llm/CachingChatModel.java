@@ -0,0 +1,52 @@
+package com.example.aicopilot.llm;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ChatLanguageModel decorator that answers repeated prompts of a single agent from {@link ResponseCache}.
+ * Only plain-text, fully finished responses are stored; tool calls always go to the delegate.
+ */
+public class CachingChatModel implements ChatLanguageModel {
+
+    private final String agentName;
+    private final String modelName;
+    private final ChatLanguageModel delegate;
+    private final ResponseCache cache;
+
+    public CachingChatModel(String agentName, String modelName, ChatLanguageModel delegate, ResponseCache cache) {
+        this.agentName = agentName;
+        this.modelName = modelName;
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        String key = ResponseCache.key(agentName, modelName, messages);
+        Optional<String> cached = cache.get(agentName, key);
+        if (cached.isPresent()) {
+            return Response.from(AiMessage.from(cached.get()), null, FinishReason.STOP);
+        }
+
+        Response<AiMessage> response = delegate.generate(messages);
+        AiMessage message = response.content();
+        boolean finished = response.finishReason() == null || response.finishReason() == FinishReason.STOP;
+        if (message != null && message.text() != null && !message.hasToolExecutionRequests() && finished) {
+            cache.put(key, message.text());
+        }
+        return response;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return delegate.generate(messages, toolSpecifications);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.aicopilot.llm;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * ChatLanguageModel decorator that routes every provider call through the {@link LlmGateway}.
+ * Token usage of each call is added to the caller's {@link TokenUsageScope}.
+ * <p>
+ * The provider call runs as a cancellable task on {@code callExecutor} while the caller waits for it, because a
+ * blocking HTTP read does not react to an interrupt. Interrupting the caller (job cancellation) cancels the task:
+ * the caller returns at once, the gateway permit is released, and the provider request is interrupted best effort
+ * and its answer discarded. A full executor runs the call on the caller's thread (not abortable).
+ */
+public class GatewayChatModel implements ChatLanguageModel {
+
+    private final ChatLanguageModel delegate;
+    private final LlmGateway gateway;
+    private final Executor callExecutor;
+
+    public GatewayChatModel(ChatLanguageModel delegate, LlmGateway gateway, Executor callExecutor) {
+        this.delegate = delegate;
+        this.gateway = gateway;
+        this.callExecutor = callExecutor;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return admitted(() -> delegate.generate(messages));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return admitted(() -> delegate.generate(messages, toolSpecifications));
+    }
+
+    private Response<AiMessage> admitted(Supplier<Response<AiMessage>> call) {
+        LlmGateway.Permit permit = gateway.acquire(LlmPriority.current());
+        try {
+            Response<AiMessage> response = cancellable(call);
+            permit.success();
+            TokenUsageScope.record(response.tokenUsage());
+            return response;
+        } catch (RuntimeException | Error e) {
+            permit.failure(e);
+            throw e;
+        }
+    }
+
+    private Response<AiMessage> cancellable(Supplier<Response<AiMessage>> call) {
+        FutureTask<Response<AiMessage>> task = new FutureTask<>(call::get);
+        try {
+            callExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            return call.get();
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException("LLM call abandoned: caller interrupted");
+            cancelled.initCause(e);
+            throw cancelled;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.aicopilot.llm;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Streaming counterpart of {@link GatewayChatModel}.
+ * The permit is held until the stream completes or fails, not just until the request is sent.
+ * If the caller abandons the stream through its {@link StreamHandle}, the permit is released immediately and the next
+ * token aborts the provider connection.
+ */
+public class GatewayStreamingChatModel implements StreamingChatLanguageModel {
+
+    private final StreamingChatLanguageModel delegate;
+    private final LlmGateway gateway;
+
+    public GatewayStreamingChatModel(StreamingChatLanguageModel delegate, LlmGateway gateway) {
+        this.delegate = delegate;
+        this.gateway = gateway;
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        LlmGateway.Permit permit = gateway.acquire(LlmPriority.current());
+        try {
+            delegate.generate(messages, handler(handler, permit));
+        } catch (RuntimeException | Error e) {
+            permit.failure(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications,
+                         StreamingResponseHandler<AiMessage> handler) {
+        LlmGateway.Permit permit = gateway.acquire(LlmPriority.current());
+        try {
+            delegate.generate(messages, toolSpecifications, handler(handler, permit));
+        } catch (RuntimeException | Error e) {
+            permit.failure(e);
+            throw e;
+        }
+    }
+
+    private static PermitReleasingHandler handler(StreamingResponseHandler<AiMessage> delegate, LlmGateway.Permit permit) {
+        PermitReleasingHandler handler = new PermitReleasingHandler(delegate, permit, TokenUsageScope.current());
+        StreamHandle stream = StreamHandle.current();
+        if (stream != null) stream.onCancel(handler::abandon);
+        return handler;
+    }
+
+    private static final class PermitReleasingHandler implements StreamingResponseHandler<AiMessage> {
+        private final StreamingResponseHandler<AiMessage> delegate;
+        private final LlmGateway.Permit permit;
+        private final TokenUsageScope usageScope;
+        private volatile boolean abandoned;
+
+        private PermitReleasingHandler(StreamingResponseHandler<AiMessage> delegate, LlmGateway.Permit permit,
+                                       TokenUsageScope usageScope) {
+            this.delegate = delegate;
+            this.permit = permit;
+            this.usageScope = usageScope;
+        }
+
+        void abandon() {
+            abandoned = true;
+            permit.failure(new CancellationException("Streaming call abandoned by the caller"));
+        }
+
+        @Override
+        public void onNext(String token) {
+            // throwing from the listener makes the HTTP client close the response
+            if (abandoned) throw new CancellationException("Streaming call abandoned by the caller");
+            delegate.onNext(token);
+        }
+
+        @Override
+        public void onComplete(Response<AiMessage> response) {
+            permit.success();
+            // completion arrives on the provider's thread, so the caller's scope was captured up front
+            if (usageScope != null) usageScope.add(response.tokenUsage());
+            if (!abandoned) delegate.onComplete(response);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            permit.failure(error);
+            if (!abandoned) delegate.onError(error);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.aicopilot.llm;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * ChatLanguageModel decorator that applies the {@link HedgingPolicy} to one agent's calls.
+ * Sits between the response cache and the gateway, so cache hits are never hedged.
+ */
+public class HedgingChatModel implements ChatLanguageModel {
+
+    private final String agentName;
+    private final ChatLanguageModel delegate;
+    private final HedgingPolicy policy;
+
+    public HedgingChatModel(String agentName, ChatLanguageModel delegate, HedgingPolicy policy) {
+        this.agentName = agentName;
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return policy.call(agentName, () -> delegate.generate(messages));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return delegate.generate(messages, toolSpecifications);
+    }
+}
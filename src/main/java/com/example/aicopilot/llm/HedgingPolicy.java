@@ -0,0 +1,191 @@
+package com.example.aicopilot.llm;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests for short agent calls (tail-latency reduction).
+ * <p>
+ * If a call has not returned after the running p95 latency of its agent, a duplicate is fired and the first
+ * successful answer wins; the other attempt is cancelled. Hedges are paid from a token bucket that earns
+ * {@code budget-ratio} tokens per call, so extra load stays below that share of the agent's traffic.
+ * Both attempts pass the {@link LlmGateway} like any other call. Attempts run on the bounded {@code hedgeExecutor};
+ * when it is full the call runs unhedged on the caller's thread.
+ * <p>
+ * The p95 is fed by every attempt that completes, not only winners. A primary attempt abandoned because its hedge
+ * won is recorded with its elapsed time (a lower bound), so slow primaries keep pulling the threshold up.
+ */
+@Slf4j
+@Component
+public class HedgingPolicy {
+
+    private final boolean enabled;
+    private final double budgetRatio;
+    private final double maxBurst;
+    private final int minSamples;
+    private final int window;
+    private final long minDelayMillis;
+    private final MeterRegistry meterRegistry;
+    private final Executor executor;
+    private final Map<String, AgentStats> statsByAgent = new ConcurrentHashMap<>();
+
+    public HedgingPolicy(@Value("${copilot.llm.hedge.enabled:false}") boolean enabled,
+                         @Value("${copilot.llm.hedge.budget-ratio:0.1}") double budgetRatio,
+                         @Value("${copilot.llm.hedge.max-burst:5}") double maxBurst,
+                         @Value("${copilot.llm.hedge.min-samples:20}") int minSamples,
+                         @Value("${copilot.llm.hedge.window:200}") int window,
+                         @Value("${copilot.llm.hedge.min-delay-millis:200}") long minDelayMillis,
+                         @Qualifier("hedgeExecutor") Executor executor,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.budgetRatio = budgetRatio;
+        this.maxBurst = maxBurst;
+        this.minSamples = minSamples;
+        this.window = window;
+        this.minDelayMillis = minDelayMillis;
+        this.meterRegistry = meterRegistry;
+        this.executor = executor;
+    }
+
+    public <T> T call(String agent, Supplier<T> agentCall) {
+        if (!enabled) return agentCall.get();
+
+        AgentStats stats = statsByAgent.computeIfAbsent(agent, this::newStats);
+        meterRegistry.counter("copilot.llm.hedge.requests", "agent", agent).increment();
+        stats.deposit(budgetRatio, maxBurst);
+
+        // Attempts run on pool threads; carry the caller's lane and token scope along
+        LlmPriority lane = LlmPriority.current();
+        // every successful attempt feeds the p95, including a loser that finishes before it is cancelled
+        Callable<T> attempt = TokenUsageScope.propagate(() -> {
+            long start = System.nanoTime();
+            T result = lane.call(agentCall);
+            stats.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return result;
+        });
+
+        long start = System.nanoTime();
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> attempts = new ArrayList<>(2);
+        Future<T> primary;
+        try {
+            primary = completion.submit(attempt);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("copilot.llm.hedge.rejected", "agent", agent).increment();
+            return unhedged(attempt);
+        }
+        attempts.add(primary);
+        Future<T> hedge = null;
+        try {
+            long delay = stats.hedgeDelayMillis(minSamples, minDelayMillis);
+            Future<T> done = delay < 0 ? completion.take() : completion.poll(delay, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                if (stats.tryWithdraw()) {
+                    try {
+                        hedge = completion.submit(attempt);
+                        attempts.add(hedge);
+                        meterRegistry.counter("copilot.llm.hedge.fired", "agent", agent).increment();
+                    } catch (RejectedExecutionException e) {
+                        meterRegistry.counter("copilot.llm.hedge.rejected", "agent", agent).increment();
+                    }
+                } else {
+                    meterRegistry.counter("copilot.llm.hedge.budget.exhausted", "agent", agent).increment();
+                }
+                done = completion.take();
+            }
+
+            int pending = attempts.size() - 1;
+            while (true) {
+                try {
+                    T winner = done.get();
+                    if (done == hedge) {
+                        meterRegistry.counter("copilot.llm.hedge.wins", "agent", agent).increment();
+                        // censored sample: the primary took at least this long
+                        if (!primary.isDone()) stats.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }
+                    return winner;
+                } catch (ExecutionException e) {
+                    if (pending-- == 0) throw unwrap(e);
+                    done = completion.take(); // the other attempt may still succeed
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + agent, e);
+        } finally {
+            attempts.forEach(f -> f.cancel(true)); // best effort: interrupts the losing HTTP call
+        }
+    }
+
+    private static <T> T unhedged(Callable<T> attempt) {
+        try {
+            return attempt.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private AgentStats newStats(String agent) {
+        AgentStats stats = new AgentStats(window);
+        meterRegistry.gauge("copilot.llm.hedge.delay", Tags.of("agent", agent),
+                stats, s -> s.hedgeDelayMillis(minSamples, minDelayMillis));
+        return stats;
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtime) return runtime;
+        if (cause instanceof Error error) throw error;
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * Latency ring buffer (p95 source) and hedge token bucket of one agent.
+     */
+    private static final class AgentStats {
+        private final long[] samples;
+        private int count;
+        private int next;
+        private double tokens;
+
+        AgentStats(int window) {
+            this.samples = new long[window];
+        }
+
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        synchronized long hedgeDelayMillis(int minSamples, long minDelayMillis) {
+            if (count < minSamples) return -1;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return Math.max(minDelayMillis, sorted[(int) Math.ceil(count * 0.95) - 1]);
+        }
+
+        synchronized void deposit(double amount, double max) {
+            tokens = Math.min(max, tokens + amount);
+        }
+
+        synchronized boolean tryWithdraw() {
+            if (tokens < 1) return false;
+            tokens -= 1;
+            return true;
+        }
+    }
+}
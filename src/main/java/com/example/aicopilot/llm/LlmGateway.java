@@ -0,0 +1,227 @@
+package com.example.aicopilot.llm;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limiter shared by every agent call.
+ * <p>
+ * The limit follows AIMD: each successful call adds {@code 1/limit}, each rate-limit or timeout halves it.
+ * Waiting calls are admitted strictly by {@link LlmPriority}; PIPELINE and BACKGROUND lanes may only fill part
+ * of the limit, so interactive calls always find headroom even when pipeline jobs saturate the provider.
+ */
+@Slf4j
+@Component
+public class LlmGateway {
+
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final double interactiveReserve;
+    private final double backgroundShare;
+    private final long maxQueueWaitNanos;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+    private final Map<LlmPriority, Integer> inFlightByLane = new EnumMap<>(LlmPriority.class);
+    private final AtomicLong sequence = new AtomicLong();
+    private double limit;
+    private int inFlight;
+
+    public LlmGateway(@Value("${copilot.llm.gateway.initial-limit:8}") double initialLimit,
+                      @Value("${copilot.llm.gateway.min-limit:2}") double minLimit,
+                      @Value("${copilot.llm.gateway.max-limit:32}") double maxLimit,
+                      @Value("${copilot.llm.gateway.backoff-ratio:0.5}") double backoffRatio,
+                      @Value("${copilot.llm.gateway.interactive-reserve:0.25}") double interactiveReserve,
+                      @Value("${copilot.llm.gateway.background-share:0.5}") double backgroundShare,
+                      @Value("${copilot.llm.gateway.max-queue-wait:PT120S}") Duration maxQueueWait,
+                      MeterRegistry meterRegistry) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.interactiveReserve = interactiveReserve;
+        this.backgroundShare = backgroundShare;
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.meterRegistry = meterRegistry;
+        for (LlmPriority lane : LlmPriority.values()) {
+            inFlightByLane.put(lane, 0);
+        }
+        meterRegistry.gauge("copilot.llm.gateway.limit", this, LlmGateway::currentLimit);
+        meterRegistry.gauge("copilot.llm.gateway.in.flight", this, LlmGateway::currentInFlight);
+    }
+
+    /**
+     * Blocks until the lane may start a call. The returned permit MUST be released.
+     */
+    public Permit acquire(LlmPriority lane) {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            Waiter waiter = new Waiter(lane, sequence.incrementAndGet(), lock.newCondition());
+            waiters.add(waiter);
+            dispatch();
+
+            long remaining = maxQueueWaitNanos;
+            while (!waiter.granted) {
+                if (remaining <= 0L) {
+                    waiters.remove(waiter);
+                    meterRegistry.counter("copilot.llm.gateway.rejected", "lane", lane.name()).increment();
+                    throw new IllegalStateException("LLM gateway queue wait exceeded for lane " + lane);
+                }
+                try {
+                    remaining = waiter.signal.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    if (waiter.granted) {
+                        releaseSlot(lane);
+                    } else {
+                        waiters.remove(waiter);
+                    }
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for LLM capacity", e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        meterRegistry.timer("copilot.llm.gateway.queue.wait", "lane", lane.name())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit(lane);
+    }
+
+    public double currentLimit() {
+        return limit;
+    }
+
+    public int currentInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Rate-limit responses and timeouts are the provider's overload signal.
+     */
+    public static boolean isOverload(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SocketTimeoutException || t instanceof HttpTimeoutException) return true;
+            String message = t.getMessage();
+            if (message != null) {
+                String lower = message.toLowerCase(Locale.ROOT);
+                if (lower.contains("429") || lower.contains("rate limit") || lower.contains("timeout")) return true;
+            }
+        }
+        return false;
+    }
+
+    // 우선순위 순서로 꺼내며, 레인 상한에 걸린 대기자는 건너뛴 뒤 다시 넣음 (하위 레인이 상위 레인을 앞지르지 않음)
+    private void dispatch() {
+        List<Waiter> capped = null;
+        while (inFlight < (int) limit) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null) break;
+            if (!canAdmit(waiter.lane)) {
+                if (capped == null) capped = new ArrayList<>();
+                capped.add(waiter);
+                continue;
+            }
+            waiter.granted = true;
+            inFlight++;
+            inFlightByLane.merge(waiter.lane, 1, Integer::sum);
+            waiter.signal.signal();
+        }
+        if (capped != null) waiters.addAll(capped);
+    }
+
+    private boolean canAdmit(LlmPriority lane) {
+        int background = inFlightByLane.get(LlmPriority.BACKGROUND);
+        int nonInteractive = inFlightByLane.get(LlmPriority.PIPELINE) + background;
+        return switch (lane) {
+            case INTERACTIVE -> true;
+            case PIPELINE -> nonInteractive < laneCap(1.0 - interactiveReserve);
+            case BACKGROUND -> nonInteractive < laneCap(1.0 - interactiveReserve) && background < laneCap(backgroundShare);
+        };
+    }
+
+    private int laneCap(double share) {
+        return Math.max(1, (int) Math.floor(limit * share));
+    }
+
+    private void release(Permit permit, boolean overloaded) {
+        lock.lock();
+        try {
+            if (overloaded) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                meterRegistry.counter("copilot.llm.gateway.overload", "lane", permit.lane.name()).increment();
+                log.warn("LLM provider overloaded. Concurrency limit reduced to {}", String.format("%.1f", limit));
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            releaseSlot(permit.lane);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseSlot(LlmPriority lane) {
+        inFlight--;
+        inFlightByLane.merge(lane, -1, Integer::sum);
+        dispatch();
+    }
+
+    private static final class Waiter implements Comparable<Waiter> {
+        private final LlmPriority lane;
+        private final long seq;
+        private final Condition signal;
+        private boolean granted;
+
+        private Waiter(LlmPriority lane, long seq, Condition signal) {
+            this.lane = lane;
+            this.seq = seq;
+            this.signal = signal;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byLane = Integer.compare(lane.ordinal(), other.lane.ordinal());
+            return byLane != 0 ? byLane : Long.compare(seq, other.seq);
+        }
+    }
+
+    /**
+     * Admission ticket for a single provider call.
+     */
+    public final class Permit {
+        private final LlmPriority lane;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(LlmPriority lane) {
+            this.lane = lane;
+        }
+
+        public void success() {
+            release(false);
+        }
+
+        public void failure(Throwable error) {
+            release(isOverload(error));
+        }
+
+        private void release(boolean overloaded) {
+            if (!released.compareAndSet(false, true)) return;
+            LlmGateway.this.release(this, overloaded);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.aicopilot.llm;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority lanes of the LLM gateway.
+ * The lane is bound to the calling thread, so agents stay unaware of it; calls without a lane are INTERACTIVE.
+ */
+public enum LlmPriority {
+    INTERACTIVE, // User is waiting on the response (chat, suggestions, map drawing)
+    PIPELINE,    // Follow-up artifact generation (data model, forms, asset ingestion)
+    BACKGROUND;  // Audits and other best-effort work
+
+    private static final ThreadLocal<LlmPriority> CURRENT = new ThreadLocal<>();
+
+    public static LlmPriority current() {
+        LlmPriority priority = CURRENT.get();
+        return priority != null ? priority : INTERACTIVE;
+    }
+
+    /**
+     * Runs the given agent call in this lane.
+     */
+    public <T> T call(Supplier<T> agentCall) {
+        LlmPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return agentCall.get();
+        } finally {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+}
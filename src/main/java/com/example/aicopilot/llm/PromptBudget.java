@@ -0,0 +1,95 @@
+package com.example.aicopilot.llm;
+
+import dev.langchain4j.model.Tokenizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Token-based prompt budgeting (replaces fixed character cuts).
+ * Counts with the model's tokenizer, so a budget means the same latency/cost regardless of language or formatting.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PromptBudget {
+
+    private static final String ELLIPSIS = "\n...(truncated)";
+    // Sections that would get less than this are dropped instead of being cut to a useless stub
+    private static final int MIN_SECTION_TOKENS = 64;
+
+    private final Tokenizer tokenizer;
+
+    /**
+     * A knowledge block; lower priority value = packed first.
+     */
+    public record Section(String header, String body, int priority) {}
+
+    public int count(String text) {
+        return text == null || text.isEmpty() ? 0 : tokenizer.estimateTokenCountInText(text);
+    }
+
+    /**
+     * Longest prefix of {@code text} that fits in {@code maxTokens} (binary search over the character length).
+     */
+    public String fit(String text, int maxTokens) {
+        if (text == null || count(text) <= maxTokens) return text;
+        int budget = Math.max(0, maxTokens - count(ELLIPSIS));
+        int low = 0, high = text.length();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (count(text.substring(0, mid)) <= budget) low = mid;
+            else high = mid - 1;
+        }
+        return text.substring(0, low) + ELLIPSIS;
+    }
+
+    /**
+     * Packs sections into {@code budget} tokens.
+     * Pass 1 gives every section up to an equal share in priority order; pass 2 hands the leftover
+     * to the truncated sections, again in priority order. Sections left below {@link #MIN_SECTION_TOKENS} are dropped.
+     */
+    public String pack(List<Section> sections, int budget) {
+        List<Section> ordered = new ArrayList<>(sections);
+        ordered.sort(Comparator.comparingInt(Section::priority));
+        if (ordered.isEmpty()) return "";
+
+        int n = ordered.size();
+        int[] headerTokens = new int[n];
+        int[] needed = new int[n];
+        int[] granted = new int[n];
+        int remaining = budget;
+        for (int i = 0; i < n; i++) {
+            headerTokens[i] = count(ordered.get(i).header());
+            needed[i] = count(ordered.get(i).body());
+            remaining -= headerTokens[i];
+        }
+
+        int share = Math.max(0, remaining) / n;
+        for (int i = 0; i < n; i++) {
+            granted[i] = Math.min(needed[i], share);
+            remaining -= granted[i];
+        }
+        for (int i = 0; i < n && remaining > 0; i++) {
+            int extra = Math.min(needed[i] - granted[i], remaining);
+            granted[i] += extra;
+            remaining -= extra;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            Section section = ordered.get(i);
+            if (granted[i] < Math.min(needed[i], MIN_SECTION_TOKENS)) {
+                log.debug("Knowledge section '{}' dropped (budget exhausted).", section.header());
+                continue;
+            }
+            String body = granted[i] >= needed[i] ? section.body() : fit(section.body(), granted[i]);
+            sb.append(section.header()).append(body).append("\n\n");
+        }
+        return sb.toString();
+    }
+}
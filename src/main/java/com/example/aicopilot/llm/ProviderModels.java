@@ -0,0 +1,13 @@
+package com.example.aicopilot.llm;
+
+import dev.langchain4j.model.chat.ChatLanguageModel;
+
+/**
+ * Raw provider models by output budget (max_tokens), used for per-agent output budgets.
+ * Implementations share one model per distinct budget. Callers wrap the result in {@link GatewayChatModel}.
+ */
+@FunctionalInterface
+public interface ProviderModels {
+
+    ChatLanguageModel withMaxTokens(int maxTokens);
+}
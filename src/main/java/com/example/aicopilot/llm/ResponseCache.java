@@ -0,0 +1,226 @@
+package com.example.aicopilot.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Response cache for deterministic (temperature=0) agent calls.
+ * Memory tier is a bounded LRU with TTL eviction; the optional disk tier keeps one JSON file per key
+ * so repeated prompts stay warm across restarts. The disk tier is capped at {@code copilot.llm.cache.disk-max-entries}
+ * files: past the cap, expired and then least recently written entries are deleted.
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path diskDir;
+    private final int diskMaxEntries;
+    private final AtomicInteger diskEntries = new AtomicInteger();
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CachedResponse> memory;
+
+    record CachedResponse(String text, long createdAt) {}
+
+    public ResponseCache(@Value("${copilot.llm.cache.max-entries:1000}") int maxEntries,
+                         @Value("${copilot.llm.cache.ttl:PT6H}") Duration ttl,
+                         @Value("${copilot.llm.cache.disk-dir:}") String diskDir,
+                         @Value("${copilot.llm.cache.disk-max-entries:10000}") int diskMaxEntries,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.diskDir = diskDir.isBlank() ? null : Path.of(diskDir);
+        this.diskMaxEntries = diskMaxEntries;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+        if (this.diskDir != null) {
+            try {
+                Files.createDirectories(this.diskDir);
+                try (Stream<Path> files = Files.list(this.diskDir)) {
+                    diskEntries.set((int) files.filter(ResponseCache::isEntryFile).count());
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create response cache directory: " + diskDir, e);
+            }
+        }
+    }
+
+    public Optional<String> get(String agent, String key) {
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            CachedResponse hit = memory.get(key);
+            if (hit != null) {
+                if (!isExpired(hit, now)) {
+                    record(agent, "hit");
+                    return Optional.of(hit.text());
+                }
+                memory.remove(key);
+            }
+        }
+
+        CachedResponse fromDisk = readFromDisk(key, now);
+        if (fromDisk != null) {
+            synchronized (memory) {
+                memory.put(key, fromDisk);
+            }
+            record(agent, "disk_hit");
+            return Optional.of(fromDisk.text());
+        }
+
+        record(agent, "miss");
+        return Optional.empty();
+    }
+
+    public void put(String key, String text) {
+        CachedResponse entry = new CachedResponse(text, System.currentTimeMillis());
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        writeToDisk(key, entry);
+    }
+
+    /**
+     * Cache key: SHA-256 over agent, model and the exact text of every message.
+     * Prompts that differ only in case or whitespace get separate entries (the model may answer them differently).
+     */
+    public static String key(String agent, String modelName, List<ChatMessage> messages) {
+        StringBuilder sb = new StringBuilder(agent).append('\u0000').append(modelName);
+        for (ChatMessage message : messages) {
+            sb.append('\u0000').append(message.type()).append(':').append(textOf(message));
+        }
+        return sha256(sb.toString());
+    }
+
+    /**
+     * Text of a message without the deprecated {@code ChatMessage.text()}. Non-text user contents (images etc.)
+     * contribute their string form.
+     */
+    public static String textOf(ChatMessage message) {
+        if (message instanceof SystemMessage system) return system.text();
+        if (message instanceof AiMessage ai) return ai.text();
+        if (message instanceof ToolExecutionResultMessage result) return result.text();
+        if (message instanceof UserMessage user) {
+            if (user.hasSingleText()) return user.singleText();
+            StringBuilder sb = new StringBuilder();
+            for (Content content : user.contents()) {
+                sb.append(content instanceof TextContent text ? text.text() : content.toString()).append('\n');
+            }
+            return sb.toString();
+        }
+        return String.valueOf(message);
+    }
+
+    public static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean isExpired(CachedResponse entry, long now) {
+        return now - entry.createdAt() > ttlMillis;
+    }
+
+    private CachedResponse readFromDisk(String key, long now) {
+        if (diskDir == null) return null;
+        Path file = diskDir.resolve(key + ".json");
+        if (!Files.exists(file)) return null;
+        try {
+            CachedResponse entry = objectMapper.readValue(file.toFile(), CachedResponse.class);
+            if (isExpired(entry, now)) {
+                if (Files.deleteIfExists(file)) diskEntries.decrementAndGet();
+                return null;
+            }
+            return entry;
+        } catch (IOException e) {
+            log.warn("Discarding unreadable cache entry {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CachedResponse entry) {
+        if (diskDir == null) return;
+        Path file = diskDir.resolve(key + ".json");
+        try {
+            boolean existed = Files.exists(file);
+            objectMapper.writeValue(file.toFile(), entry);
+            if (!existed && diskEntries.incrementAndGet() > diskMaxEntries) pruneDisk();
+        } catch (IOException e) {
+            log.warn("Failed to persist cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    // Drops expired entries, then the oldest ones until 90% of the cap is left (so pruning is not run on every write)
+    private synchronized void pruneDisk() {
+        if (diskEntries.get() <= diskMaxEntries) return;
+        long now = System.currentTimeMillis();
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(diskDir)) {
+            files = new ArrayList<>(listing.filter(ResponseCache::isEntryFile).toList());
+        } catch (IOException e) {
+            log.warn("Failed to prune response cache directory {}: {}", diskDir, e.getMessage());
+            return;
+        }
+        Map<Path, Long> modified = new HashMap<>();
+        for (Path file : files) modified.put(file, lastModified(file));
+        files.sort(Comparator.comparingLong(modified::get));
+
+        int target = diskMaxEntries * 9 / 10;
+        int remaining = files.size();
+        for (Path file : files) {
+            boolean expired = now - modified.get(file) > ttlMillis;
+            if (!expired && remaining <= target) break;
+            try {
+                if (Files.deleteIfExists(file)) remaining--;
+            } catch (IOException e) {
+                log.debug("Failed to delete cache entry {}: {}", file, e.getMessage());
+            }
+        }
+        diskEntries.set(remaining);
+        meterRegistry.counter("copilot.llm.cache.disk.pruned").increment(files.size() - remaining);
+    }
+
+    private static boolean isEntryFile(Path file) {
+        return file.getFileName().toString().endsWith(".json");
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            FileTime time = Files.getLastModifiedTime(file);
+            return time.toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private void record(String agent, String result) {
+        meterRegistry.counter("copilot.llm.cache", "agent", agent, "result", result).increment();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.aicopilot.llm;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Lets the caller of a streaming agent call abandon the stream (timeout, job cancellation).
+ * Thread-bound like {@link TokenUsageScope}: open it on the thread that starts the TokenStream, close it right after
+ * {@code start()} returns. The handle stays usable after close; {@link #cancel()} releases the gateway permit at once
+ * and makes the provider connection drop on its next token.
+ */
+public final class StreamHandle implements AutoCloseable {
+
+    private static final ThreadLocal<StreamHandle> CURRENT = new ThreadLocal<>();
+
+    private final StreamHandle previous;
+    private final List<Runnable> cancelActions = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
+
+    private StreamHandle(StreamHandle previous) {
+        this.previous = previous;
+    }
+
+    public static StreamHandle open() {
+        StreamHandle handle = new StreamHandle(CURRENT.get());
+        CURRENT.set(handle);
+        return handle;
+    }
+
+    static StreamHandle current() {
+        return CURRENT.get();
+    }
+
+    void onCancel(Runnable action) {
+        cancelActions.add(action);
+        if (cancelled) action.run();
+    }
+
+    public void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+        cancelActions.forEach(Runnable::run);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) return;
+        if (previous == null) CURRENT.remove();
+        else CURRENT.set(previous);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.aicopilot.llm;
+
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the provider-reported prompt/completion tokens of every LLM call made while the scope is open.
+ * Scopes are thread-bound like {@link LlmPriority}; use {@link #propagate(Callable)} when handing work to another thread.
+ * Nested scopes also add to their enclosing scopes.
+ */
+public final class TokenUsageScope implements AutoCloseable {
+
+    private static final ThreadLocal<TokenUsageScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Receives the totals when the scope is closed (only if any tokens were used).
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void accept(long promptTokens, long completionTokens);
+    }
+
+    private final TokenUsageScope parent;
+    private final Sink sink;
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong completionTokens = new AtomicLong();
+
+    private TokenUsageScope(TokenUsageScope parent, Sink sink) {
+        this.parent = parent;
+        this.sink = sink;
+    }
+
+    public static TokenUsageScope open(Sink sink) {
+        TokenUsageScope scope = new TokenUsageScope(CURRENT.get(), sink);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static TokenUsageScope current() {
+        return CURRENT.get();
+    }
+
+    public static void record(TokenUsage usage) {
+        TokenUsageScope scope = CURRENT.get();
+        if (scope != null) scope.add(usage);
+    }
+
+    /**
+     * Binds the caller's scope to a task that will run on another thread.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        TokenUsageScope captured = CURRENT.get();
+        if (captured == null) return task;
+        return () -> {
+            TokenUsageScope previous = CURRENT.get();
+            CURRENT.set(captured);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public void add(TokenUsage usage) {
+        if (usage == null) return;
+        for (TokenUsageScope scope = this; scope != null; scope = scope.parent) {
+            if (usage.inputTokenCount() != null) scope.promptTokens.addAndGet(usage.inputTokenCount());
+            if (usage.outputTokenCount() != null) scope.completionTokens.addAndGet(usage.outputTokenCount());
+        }
+    }
+
+    public long promptTokens() {
+        return promptTokens.get();
+    }
+
+    public long completionTokens() {
+        return completionTokens.get();
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (parent == null) CURRENT.remove();
+            else CURRENT.set(parent);
+        }
+        if (sink != null && (promptTokens.get() > 0 || completionTokens.get() > 0)) {
+            sink.accept(promptTokens.get(), completionTokens.get());
+        }
+    }
+}
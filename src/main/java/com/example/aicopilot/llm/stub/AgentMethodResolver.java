@@ -0,0 +1,97 @@
+package com.example.aicopilot.llm.stub;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.spring.AiService;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Identifies which agent method produced a prompt by matching the literal head of its
+ * {@code @SystemMessage} / {@code @UserMessage} templates (the text before the first variable).
+ */
+public class AgentMethodResolver {
+
+    private static final int PREFIX_LENGTH = 120;
+
+    public record AgentMethod(String name, Type returnType) {
+        static final AgentMethod UNKNOWN = new AgentMethod("unknown", null);
+    }
+
+    private record Signature(AgentMethod method, String systemPrefix, String userPrefix) {
+        int score() {
+            return (systemPrefix == null ? 0 : systemPrefix.length()) + (userPrefix == null ? 0 : userPrefix.length());
+        }
+    }
+
+    private final List<Signature> signatures = new ArrayList<>();
+
+    public AgentMethodResolver(String basePackage) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AnnotationTypeFilter(AiService.class));
+        for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+            Class<?> agent = ClassUtils.resolveClassName(candidate.getBeanClassName(), getClass().getClassLoader());
+            for (Method method : agent.getMethods()) {
+                // streaming methods share the prompt of their blocking twin and have no JSON return type
+                if (method.getReturnType() == TokenStream.class) continue;
+                Signature signature = new Signature(
+                        new AgentMethod(agent.getSimpleName() + "." + method.getName(), method.getGenericReturnType()),
+                        prefix(systemTemplate(agent, method)), prefix(userTemplate(method)));
+                if (signature.score() > 0) signatures.add(signature);
+            }
+        }
+    }
+
+    public AgentMethod resolve(List<ChatMessage> messages) {
+        String system = null, user = null;
+        for (ChatMessage message : messages) {
+            if (message instanceof SystemMessage s) system = normalize(s.text());
+            if (message instanceof UserMessage u && u.hasSingleText()) user = normalize(u.singleText());
+        }
+        Signature best = null;
+        for (Signature s : signatures) {
+            boolean systemMatch = s.systemPrefix() == null || (system != null && system.startsWith(s.systemPrefix()));
+            boolean userMatch = s.userPrefix() == null || (user != null && user.startsWith(s.userPrefix()));
+            if (systemMatch && userMatch && (best == null || s.score() > best.score())) best = s;
+        }
+        return best == null ? AgentMethod.UNKNOWN : best.method();
+    }
+
+    private static String systemTemplate(Class<?> agent, Method method) {
+        dev.langchain4j.service.SystemMessage annotation = method.getAnnotation(dev.langchain4j.service.SystemMessage.class);
+        if (annotation == null) annotation = agent.getAnnotation(dev.langchain4j.service.SystemMessage.class);
+        return annotation == null ? null : String.join(annotation.delimiter(), annotation.value());
+    }
+
+    private static String userTemplate(Method method) {
+        dev.langchain4j.service.UserMessage annotation = method.getAnnotation(dev.langchain4j.service.UserMessage.class);
+        return annotation == null ? null : String.join(annotation.delimiter(), annotation.value());
+    }
+
+    private static String prefix(String template) {
+        if (template == null) return null;
+        int variable = template.indexOf("{{");
+        String literal = normalize(variable < 0 ? template : template.substring(0, variable));
+        if (literal.isEmpty()) return null;
+        return literal.length() > PREFIX_LENGTH ? literal.substring(0, PREFIX_LENGTH) : literal;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.aicopilot.llm.stub;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulated response time of the stub model.
+ * REPLAYED samples the recorded timings of the same agent method and falls back to LOGNORMAL.
+ */
+public class LatencyModel {
+
+    public enum Distribution { FIXED, LOGNORMAL, REPLAYED }
+
+    private final Distribution distribution;
+    private final long fixedMillis;
+    private final double medianMillis;
+    private final double sigma;
+
+    public LatencyModel(Distribution distribution, Duration fixed, Duration median, double sigma) {
+        this.distribution = distribution;
+        this.fixedMillis = fixed.toMillis();
+        this.medianMillis = median.toMillis();
+        this.sigma = sigma;
+    }
+
+    public long sampleMillis(List<Long> recorded) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (distribution) {
+            case FIXED -> fixedMillis;
+            case REPLAYED -> recorded.isEmpty() ? lognormal(random) : recorded.get(random.nextInt(recorded.size()));
+            case LOGNORMAL -> lognormal(random);
+        };
+    }
+
+    private long lognormal(ThreadLocalRandom random) {
+        return Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    static void sleep(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Stub LLM call interrupted", e);
+        }
+    }
+}
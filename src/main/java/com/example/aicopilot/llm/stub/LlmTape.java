@@ -0,0 +1,99 @@
+package com.example.aicopilot.llm.stub;
+
+import com.example.aicopilot.llm.ResponseCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.ChatMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recorded LLM exchanges (JSONL, one {@link Entry} per line) used by the llm-record / llm-replay profiles.
+ * Entries are keyed by agent method and the exact prompt hash.
+ */
+@Slf4j
+public class LlmTape {
+
+    public record Entry(String agent, String key, String response, long latencyMillis) {}
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // 목록마다 그 목록을 락으로 사용 (녹화 중 여러 스레드가 동시에 추가)
+    private final Map<String, List<Long>> latenciesByAgent = new ConcurrentHashMap<>();
+
+    public LlmTape(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        load();
+    }
+
+    public static String key(String agent, List<ChatMessage> messages) {
+        StringBuilder sb = new StringBuilder(agent);
+        for (ChatMessage message : messages) {
+            sb.append('\u0000').append(message.type()).append(':').append(ResponseCache.textOf(message));
+        }
+        return ResponseCache.sha256(sb.toString());
+    }
+
+    public Optional<Entry> find(String agent, String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.agent().equals(agent) ? Optional.of(entry) : Optional.empty();
+    }
+
+    /**
+     * @return snapshot of the agent's recorded latencies
+     */
+    public List<Long> latencies(String agent) {
+        List<Long> latencies = latenciesByAgent.get(agent);
+        if (latencies == null) return List.of();
+        synchronized (latencies) {
+            return List.copyOf(latencies);
+        }
+    }
+
+    public void record(Entry entry) {
+        index(entry);
+        try {
+            String line = objectMapper.writeValueAsString(entry) + "\n";
+            synchronized (this) {
+                if (file.getParent() != null) Files.createDirectories(file.getParent());
+                Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to append LLM tape entry: {}", e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            log.info("LLM tape {} not found. Starting empty.", file);
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) index(objectMapper.readValue(line, Entry.class));
+            }
+            log.info("LLM tape loaded: {} entries from {}", entries.size(), file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read LLM tape: " + file, e);
+        }
+    }
+
+    private void index(Entry entry) {
+        entries.put(entry.key(), entry);
+        List<Long> latencies = latenciesByAgent.computeIfAbsent(entry.agent(), a -> new ArrayList<>());
+        synchronized (latencies) {
+            latencies.add(entry.latencyMillis());
+        }
+    }
+}
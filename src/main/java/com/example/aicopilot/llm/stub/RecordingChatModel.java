@@ -0,0 +1,42 @@
+package com.example.aicopilot.llm.stub;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * Pass-through decorator (profile llm-record) that appends every text answer and its latency to the tape.
+ */
+public class RecordingChatModel implements ChatLanguageModel {
+
+    private final ChatLanguageModel delegate;
+    private final LlmTape tape;
+    private final AgentMethodResolver resolver;
+
+    public RecordingChatModel(ChatLanguageModel delegate, LlmTape tape, AgentMethodResolver resolver) {
+        this.delegate = delegate;
+        this.tape = tape;
+        this.resolver = resolver;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        long start = System.currentTimeMillis();
+        Response<AiMessage> response = delegate.generate(messages);
+        if (response.content() != null && response.content().text() != null) {
+            String agent = resolver.resolve(messages).name();
+            tape.record(new LlmTape.Entry(agent, LlmTape.key(agent, messages), response.content().text(),
+                    System.currentTimeMillis() - start));
+        }
+        return response;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return delegate.generate(messages, toolSpecifications);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.aicopilot.llm.stub;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * Streaming counterpart of {@link RecordingChatModel}; the full answer is recorded on completion.
+ */
+public class RecordingStreamingChatModel implements StreamingChatLanguageModel {
+
+    private final StreamingChatLanguageModel delegate;
+    private final LlmTape tape;
+    private final AgentMethodResolver resolver;
+
+    public RecordingStreamingChatModel(StreamingChatLanguageModel delegate, LlmTape tape, AgentMethodResolver resolver) {
+        this.delegate = delegate;
+        this.tape = tape;
+        this.resolver = resolver;
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        long start = System.currentTimeMillis();
+        delegate.generate(messages, new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {
+                handler.onNext(token);
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                if (response.content() != null && response.content().text() != null) {
+                    String agent = resolver.resolve(messages).name();
+                    tape.record(new LlmTape.Entry(agent, LlmTape.key(agent, messages), response.content().text(),
+                            System.currentTimeMillis() - start));
+                }
+                handler.onComplete(response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                handler.onError(error);
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.aicopilot.llm.stub;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Offline ChatLanguageModel (profile llm-replay).
+ * Answers from the tape when the exact prompt was recorded, otherwise synthesizes a schema-valid response,
+ * and sleeps for a simulated latency so the pipeline can be load-tested without network access.
+ */
+public class ReplayChatModel implements ChatLanguageModel {
+
+    private final LlmTape tape;
+    private final AgentMethodResolver resolver;
+    private final ResponseSynthesizer synthesizer;
+    private final LatencyModel latencyModel;
+    private final MeterRegistry meterRegistry;
+
+    public ReplayChatModel(LlmTape tape, AgentMethodResolver resolver, ResponseSynthesizer synthesizer,
+                           LatencyModel latencyModel, MeterRegistry meterRegistry) {
+        this.tape = tape;
+        this.resolver = resolver;
+        this.synthesizer = synthesizer;
+        this.latencyModel = latencyModel;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return Response.from(AiMessage.from(answer(messages)), null, FinishReason.STOP);
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return generate(messages);
+    }
+
+    String answer(List<ChatMessage> messages) {
+        AgentMethodResolver.AgentMethod method = resolver.resolve(messages);
+        Optional<LlmTape.Entry> recorded = tape.find(method.name(), LlmTape.key(method.name(), messages));
+        meterRegistry.counter("copilot.llm.stub", "agent", method.name(),
+                "result", recorded.isPresent() ? "replayed" : "synthesized").increment();
+
+        List<Long> timings = recorded.map(e -> List.of(e.latencyMillis())).orElseGet(() -> tape.latencies(method.name()));
+        LatencyModel.sleep(latencyModel.sampleMillis(timings));
+        return recorded.map(LlmTape.Entry::response).orElseGet(() -> synthesizer.synthesize(method.returnType()));
+    }
+}
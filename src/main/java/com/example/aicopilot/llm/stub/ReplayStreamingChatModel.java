@@ -0,0 +1,39 @@
+package com.example.aicopilot.llm.stub;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * Streaming variant of {@link ReplayChatModel}: the answer is emitted in small chunks on the calling thread.
+ */
+public class ReplayStreamingChatModel implements StreamingChatLanguageModel {
+
+    private static final int CHUNK_SIZE = 16;
+
+    private final ReplayChatModel replay;
+
+    public ReplayStreamingChatModel(ReplayChatModel replay) {
+        this.replay = replay;
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        String text;
+        try {
+            text = replay.answer(messages);
+        } catch (RuntimeException e) {
+            handler.onError(e);
+            return;
+        }
+        for (int i = 0; i < text.length(); i += CHUNK_SIZE) {
+            handler.onNext(text.substring(i, Math.min(text.length(), i + CHUNK_SIZE)));
+        }
+        handler.onComplete(Response.from(AiMessage.from(text), null, FinishReason.STOP));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.aicopilot.llm.stub;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Builds a minimal, schema-valid JSON answer for an agent return type (records, enums, lists, scalars).
+ * Flow references point to the virtual end node so synthesized process maps pass ProcessValidator.
+ */
+public class ResponseSynthesizer {
+
+    private static final int MAX_DEPTH = 6;
+
+    private final ObjectMapper objectMapper;
+
+    public ResponseSynthesizer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public String synthesize(Type type) {
+        if (type == null) return "{}";
+        JsonNode node = valueFor(type, "value", 0);
+        return node.isObject() ? node.toString() : objectMapper.createObjectNode().set("value", node).toString();
+    }
+
+    private JsonNode valueFor(Type type, String name, int depth) {
+        Class<?> raw = rawClass(type);
+        if (raw == String.class) return objectMapper.getNodeFactory().textNode(textFor(name));
+        if (raw == Boolean.class || raw == boolean.class) return objectMapper.getNodeFactory().booleanNode(false);
+        if (Number.class.isAssignableFrom(raw) || raw.isPrimitive()) return objectMapper.getNodeFactory().numberNode(0);
+        if (raw.isEnum()) return objectMapper.getNodeFactory().textNode(((Enum<?>) raw.getEnumConstants()[0]).name());
+        if (depth >= MAX_DEPTH) return objectMapper.createObjectNode();
+
+        if (Collection.class.isAssignableFrom(raw)) {
+            ArrayNode array = objectMapper.createArrayNode();
+            if (type instanceof ParameterizedType p) array.add(valueFor(p.getActualTypeArguments()[0], name, depth + 1));
+            return array;
+        }
+        if (Map.class.isAssignableFrom(raw)) return objectMapper.createObjectNode();
+
+        ObjectNode object = objectMapper.createObjectNode();
+        if (raw.isRecord()) {
+            for (RecordComponent component : raw.getRecordComponents()) {
+                JsonProperty property = component.getAnnotation(JsonProperty.class);
+                String field = property != null && !property.value().isEmpty() ? property.value() : component.getName();
+                object.set(field, valueFor(component.getGenericType(), field, depth + 1));
+            }
+        }
+        return object;
+    }
+
+    private static String textFor(String name) {
+        if (name.endsWith("ActivityId")) return "node_end";
+        if (name.equals("id")) return "node_stub";
+        return "stub " + name;
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> c) return c;
+        if (type instanceof ParameterizedType p) return (Class<?>) p.getRawType();
+        return Object.class;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.aicopilot.pipeline;
+
+import java.util.*;
+
+/**
+ * A named set of stages. Order in the list does not matter; the engine derives the DAG from inputs and outputs.
+ */
+public record Pipeline(String name, List<Stage> stages) {
+
+    public Pipeline {
+        stages = List.copyOf(stages);
+    }
+
+    /**
+     * Checks that every input is provided or produced exactly once and that the stages form no cycle.
+     */
+    void validate(Set<String> provided) {
+        Map<String, String> producers = new HashMap<>();
+        Set<String> names = new HashSet<>();
+        for (Stage stage : stages) {
+            if (!names.add(stage.name())) {
+                throw new IllegalArgumentException("Pipeline [" + name + "] declares stage [" + stage.name() + "] twice.");
+            }
+            if (stage.output() == null) continue;
+            if (provided.contains(stage.output()) || producers.putIfAbsent(stage.output(), stage.name()) != null) {
+                throw new IllegalArgumentException("Pipeline [" + name + "] produces [" + stage.output() + "] more than once.");
+            }
+        }
+
+        Set<String> available = new HashSet<>(provided);
+        List<Stage> pending = new ArrayList<>(stages);
+        while (!pending.isEmpty()) {
+            List<Stage> ready = pending.stream().filter(s -> available.containsAll(s.inputs())).toList();
+            if (ready.isEmpty()) {
+                Stage blocked = pending.get(0);
+                Set<String> missing = new TreeSet<>(blocked.inputs());
+                missing.removeAll(available);
+                throw new IllegalArgumentException("Pipeline [" + name + "] stage [" + blocked.name()
+                        + "] can never start, missing " + missing + " (unknown key or cycle).");
+            }
+            pending.removeAll(ready);
+            ready.stream().map(Stage::output).filter(Objects::nonNull).forEach(available::add);
+        }
+    }
+
+    Stage producerOf(String key) {
+        return stages.stream().filter(s -> key.equals(s.output())).findFirst().orElse(null);
+    }
+
+    /**
+     * Number of stages that (transitively) wait on the given one. Used to keep the longest chain on the current thread.
+     */
+    int downstreamCount(Stage stage) {
+        Set<String> reached = new HashSet<>();
+        Deque<Stage> frontier = new ArrayDeque<>(List.of(stage));
+        while (!frontier.isEmpty()) {
+            Stage current = frontier.poll();
+            if (current.output() == null) continue;
+            for (Stage s : stages) {
+                if (s.inputs().contains(current.output()) && reached.add(s.name())) frontier.add(s);
+            }
+        }
+        return reached.size();
+    }
+}
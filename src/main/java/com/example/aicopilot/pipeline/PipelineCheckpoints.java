@@ -0,0 +1,90 @@
+package com.example.aicopilot.pipeline;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * [New] Per-job checkpoint of a pipeline run: the pipeline, the values the unfinished stages still need and the stages
+ * that completed. {@link PipelineEngine} tracks every executing run here; when a run fails or is cancelled after at
+ * least one stage completed, its checkpoint moves to a bounded store (oldest dropped first), trimmed to the inputs of
+ * the stages that did not complete. Successful and halted runs keep nothing. {@link PipelineEngine#resume(String)}
+ * continues from a stored checkpoint, so resume is only possible once the run that wrote it has fully stopped
+ * (a cancelled run may still be finishing its in-flight stages).
+ */
+@Component
+public class PipelineCheckpoints {
+
+    public record Checkpoint(Pipeline pipeline, Map<String, Object> values, Set<String> completed) {}
+
+    // checkpoints of executing runs; never evicted (bounded by the executors)
+    private final Map<String, Checkpoint> running = new ConcurrentHashMap<>();
+    // checkpoints of stopped runs; oldest are dropped first once the limit is reached
+    private final Map<String, Checkpoint> stopped;
+
+    public PipelineCheckpoints(@Value("${copilot.pipeline.checkpoint.max-entries:500}") int maxEntries) {
+        this.stopped = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Checkpoint> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    void begin(String jobId, Pipeline pipeline, Map<String, Object> initialValues) {
+        stopped.remove(jobId);
+        running.put(jobId, new Checkpoint(pipeline, new ConcurrentHashMap<>(initialValues), ConcurrentHashMap.newKeySet()));
+    }
+
+    /**
+     * Takes the stored checkpoint and marks the job's run as executing again.
+     * Empty if there is no stored checkpoint (none written, expired, or a run is still executing).
+     */
+    Optional<Checkpoint> claim(String jobId) {
+        Checkpoint checkpoint = stopped.remove(jobId);
+        if (checkpoint == null) return Optional.empty();
+        running.put(jobId, checkpoint);
+        return Optional.of(checkpoint);
+    }
+
+    /**
+     * The run stopped without clearing its checkpoint (failure, cancellation): keep it if there is anything to reuse.
+     */
+    void stopped(String jobId) {
+        Checkpoint checkpoint = running.remove(jobId);
+        if (checkpoint == null || checkpoint.completed().isEmpty()) return;
+        stopped.put(jobId, trimmed(checkpoint));
+    }
+
+    void completed(String jobId, Stage stage, Object output) {
+        Checkpoint checkpoint = running.get(jobId);
+        if (checkpoint == null) return;
+        if (stage.output() != null) checkpoint.values().put(stage.output(), output);
+        checkpoint.completed().add(stage.name());
+    }
+
+    void clear(String jobId) {
+        running.remove(jobId);
+        stopped.remove(jobId);
+    }
+
+    public boolean isResumable(String jobId) {
+        return stopped.containsKey(jobId);
+    }
+
+    // only the inputs of stages that still have to run are needed to resume
+    private static Checkpoint trimmed(Checkpoint checkpoint) {
+        Set<String> needed = new HashSet<>();
+        checkpoint.pipeline().stages().stream()
+                .filter(stage -> !checkpoint.completed().contains(stage.name()))
+                .forEach(stage -> needed.addAll(stage.inputs()));
+        Map<String, Object> values = new ConcurrentHashMap<>(checkpoint.values());
+        values.keySet().retainAll(needed);
+        // stays mutable: a resumed run keeps recording into it
+        Set<String> completed = ConcurrentHashMap.newKeySet();
+        completed.addAll(checkpoint.completed());
+        return new Checkpoint(checkpoint.pipeline(), values, completed);
+    }
+}
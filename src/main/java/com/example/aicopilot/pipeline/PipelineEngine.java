@@ -0,0 +1,375 @@
+package com.example.aicopilot.pipeline;
+
+import com.example.aicopilot.dto.ProgressStep;
+import com.example.aicopilot.service.JobCancellationRegistry;
+import com.example.aicopilot.service.JobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * [Optimization] Runs a {@link Pipeline} for one job.
+ * <p>
+ * A stage starts as soon as its inputs are available; independent stages run in parallel. The thread that finishes a
+ * stage continues with the unlocked stage that has the most work behind it and forks the others to the task executor,
+ * so a linear pipeline never leaves the calling thread. The engine maintains the stage's ProgressStep and
+ * stageDurations entry, applies timeouts / retries / per-stage concurrency limits and records the critical path
+ * (the chain of stages that actually determined the job latency) as {@code CRITICAL_PATH}.
+ * Once the job is cancelled no further stage starts, and running stages are interrupted through
+ * {@link JobCancellationRegistry}.
+ * <p>
+ * Per-stage overrides: {@code copilot.pipeline.stage.<name>.timeout | max-attempts | max-concurrency}.
+ * <p>
+ * [New] Completed stages are checkpointed ({@link PipelineCheckpoints}); {@link #resume(String)} reruns a failed
+ * or cancelled job from its first incomplete stage.
+ */
+@Slf4j
+@Component
+public class PipelineEngine implements DisposableBean {
+
+    private final JobRepository jobRepository;
+    private final JobCancellationRegistry cancellation;
+    private final AsyncTaskExecutor taskExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final PipelineCheckpoints checkpoints;
+    private final Map<String, Semaphore> stageSlots = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService watchdog;
+
+    public PipelineEngine(JobRepository jobRepository, JobCancellationRegistry cancellation,
+                          @Qualifier("artifactExecutor") AsyncTaskExecutor taskExecutor,
+                          MeterRegistry meterRegistry, Environment environment, PipelineCheckpoints checkpoints) {
+        this.jobRepository = jobRepository;
+        this.cancellation = cancellation;
+        this.taskExecutor = taskExecutor;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.checkpoints = checkpoints;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pipeline-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the pipeline to completion and returns every published value.
+     *
+     * @throws PipelineHaltedException if a stage halted the pipeline
+     * @throws Exception               the failure of the first stage that failed (after its retries)
+     */
+    public Map<String, Object> run(String jobId, Pipeline pipeline, Map<String, Object> initialValues) throws Exception {
+        pipeline.validate(initialValues.keySet());
+        checkpoints.begin(jobId, pipeline, initialValues);
+        return finish(jobId, new Run(jobId, pipeline, initialValues, Set.of()));
+    }
+
+    public boolean canResume(String jobId) {
+        return checkpoints.isResumable(jobId);
+    }
+
+    /**
+     * Reruns the job's last pipeline from its checkpoint: completed stages are skipped and their outputs reused.
+     *
+     * @throws IllegalStateException if the job has no checkpoint or its previous run is still executing
+     */
+    public Map<String, Object> resume(String jobId) throws Exception {
+        PipelineCheckpoints.Checkpoint checkpoint = checkpoints.claim(jobId)
+                .orElseThrow(() -> new IllegalStateException("Job [" + jobId + "] has no checkpoint to resume from."));
+        Set<String> completed = Set.copyOf(checkpoint.completed());
+        log.info("Job [{}] resuming pipeline [{}], skipping completed stages {}.", jobId, checkpoint.pipeline().name(), completed);
+        meterRegistry.counter("copilot.pipeline.resumed", "pipeline", checkpoint.pipeline().name()).increment();
+        return finish(jobId, new Run(jobId, checkpoint.pipeline(), Map.copyOf(checkpoint.values()), completed));
+    }
+
+    private Map<String, Object> finish(String jobId, Run run) throws Exception {
+        try {
+            Map<String, Object> values = run.execute();
+            checkpoints.clear(jobId);
+            return values;
+        } catch (PipelineHaltedException e) {
+            checkpoints.clear(jobId);
+            throw e;
+        } finally {
+            checkpoints.stopped(jobId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+    }
+
+    private record Settings(Duration timeout, int maxAttempts, int maxConcurrency) {}
+
+    private record Timing(long startNanos, long endNanos) {
+        long millis() {
+            return TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+        }
+    }
+
+    private Settings settings(Stage stage) {
+        String prefix = "copilot.pipeline.stage." + stage.name().toLowerCase(Locale.ROOT) + ".";
+        return new Settings(
+                environment.getProperty(prefix + "timeout", Duration.class, stage.timeout()),
+                Math.max(1, environment.getProperty(prefix + "max-attempts", Integer.class, stage.maxAttempts())),
+                environment.getProperty(prefix + "max-concurrency", Integer.class, stage.maxConcurrency()));
+    }
+
+    private final class Run {
+        private final String jobId;
+        private final Pipeline pipeline;
+        private final Map<String, Object> values;
+        private final Map<String, Long> publishedAt = new ConcurrentHashMap<>();
+        private final Set<String> started = new HashSet<>();
+        private final Map<String, Timing> timings = new HashMap<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private int running;
+        private Throwable failure;
+
+        Run(String jobId, Pipeline pipeline, Map<String, Object> initialValues, Set<String> completed) {
+            this.jobId = jobId;
+            this.pipeline = pipeline;
+            this.values = new ConcurrentHashMap<>(initialValues);
+            this.started.addAll(completed);
+            long now = System.currentTimeMillis();
+            initialValues.keySet().forEach(key -> publishedAt.put(key, now));
+        }
+
+        Map<String, Object> execute() throws Exception {
+            long start = System.nanoTime();
+            List<Stage> ready;
+            synchronized (this) {
+                ready = claimReady();
+                if (ready.isEmpty()) done.complete(null);
+            }
+            drive(ready);
+            try {
+                done.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+            recordCriticalPath(start);
+            return Map.copyOf(values);
+        }
+
+        /**
+         * Runs the given stages: the one with the longest chain behind it on this thread, the others forked.
+         */
+        private void drive(List<Stage> ready) {
+            Deque<Stage> local = new ArrayDeque<>();
+            dispatch(ready, local);
+            Stage next;
+            while ((next = local.poll()) != null) {
+                dispatch(runStage(next), local);
+            }
+        }
+
+        private void dispatch(List<Stage> ready, Deque<Stage> local) {
+            if (ready.isEmpty()) return;
+            List<Stage> ordered = new ArrayList<>(ready);
+            ordered.sort(Comparator.comparingInt(pipeline::downstreamCount).reversed());
+            local.push(ordered.get(0));
+            for (Stage stage : ordered.subList(1, ordered.size())) {
+                try {
+                    taskExecutor.execute(() -> drive(List.of(stage)));
+                } catch (RejectedExecutionException e) {
+                    log.warn("Job [{}] stage [{}] could not be forked. Running it on the current thread.", jobId, stage.name());
+                    local.add(stage);
+                }
+            }
+        }
+
+        private List<Stage> runStage(Stage stage) {
+            long start = System.nanoTime();
+            Object output = null;
+            Throwable error = null;
+            try {
+                output = execute(stage);
+            } catch (Throwable t) {
+                error = t;
+            }
+            long end = System.nanoTime();
+
+            synchronized (this) {
+                timings.put(stage.name(), new Timing(start, end));
+                running--;
+                if (error != null) {
+                    if (failure == null) failure = error;
+                } else {
+                    if (stage.output() != null) {
+                        publishedAt.put(stage.output(), System.currentTimeMillis());
+                        values.put(stage.output(), output);
+                    }
+                    checkpoints.completed(jobId, stage, output);
+                }
+                if (failure == null && cancellation.isCancelled(jobId)) {
+                    failure = new CancellationException("Job [" + jobId + "] was cancelled.");
+                }
+                // after a failure nothing new starts; stages already running are allowed to finish
+                List<Stage> unlocked = failure == null ? claimReady() : List.of();
+                if (running == 0 && unlocked.isEmpty()) {
+                    if (failure != null) done.completeExceptionally(failure);
+                    else done.complete(null);
+                }
+                return unlocked;
+            }
+        }
+
+        // caller holds the lock
+        private List<Stage> claimReady() {
+            List<Stage> ready = new ArrayList<>();
+            for (Stage stage : pipeline.stages()) {
+                if (!started.contains(stage.name()) && values.keySet().containsAll(stage.inputs())) {
+                    started.add(stage.name());
+                    ready.add(stage);
+                }
+            }
+            running += ready.size();
+            return ready;
+        }
+
+        private Object execute(Stage stage) throws Exception {
+            Settings settings = settings(stage);
+            if (stage.step() != null) {
+                jobRepository.upsertProgressStep(jobId, stage.step().id(), stage.step().label(), ProgressStep.Status.IN_PROGRESS);
+            }
+            Semaphore slots = settings.maxConcurrency() > 0
+                    ? stageSlots.computeIfAbsent(stage.name(), n -> new Semaphore(settings.maxConcurrency()))
+                    : null;
+
+            long start = System.currentTimeMillis();
+            String outcome = "failed";
+            try (JobCancellationRegistry.Binding ignored = cancellation.bind(jobId)) {
+                if (slots != null) slots.acquire();
+                try {
+                    start = System.currentTimeMillis();
+                    Object output = attempt(stage, settings);
+                    outcome = "completed";
+                    return output;
+                } finally {
+                    if (slots != null) slots.release();
+                }
+            } catch (PipelineHaltedException e) {
+                outcome = "halted";
+                throw e;
+            } catch (Exception e) {
+                if (cancellation.isCancelled(jobId)) outcome = "cancelled";
+                throw e;
+            } finally {
+                long elapsed = System.currentTimeMillis() - start;
+                jobRepository.recordStageDuration(jobId, stage.name(), elapsed);
+                if (stage.step() != null) {
+                    jobRepository.upsertProgressStep(jobId, stage.step().id(), stage.step().label(),
+                            "completed".equals(outcome) ? ProgressStep.Status.COMPLETED : ProgressStep.Status.FAILED);
+                }
+                meterRegistry.timer("copilot.pipeline.stage",
+                        "pipeline", pipeline.name(), "stage", stage.name(), "outcome", outcome)
+                        .record(elapsed, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private Object attempt(Stage stage, Settings settings) throws Exception {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    Object output = runWithTimeout(stage, new StageContext(jobId, values, publishedAt, attempt), settings.timeout());
+                    if (output == null && stage.output() != null) {
+                        throw new IllegalStateException("Stage [" + stage.name() + "] produced no " + stage.output() + ".");
+                    }
+                    return output;
+                } catch (PipelineHaltedException | InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    if (attempt >= settings.maxAttempts() || cancellation.isCancelled(jobId)) throw e;
+                    log.warn("Job [{}] stage [{}] attempt {} failed: {}. Retrying.", jobId, stage.name(), attempt, e.getMessage());
+                    meterRegistry.counter("copilot.pipeline.stage.retries", "stage", stage.name()).increment();
+                }
+            }
+        }
+
+        /**
+         * The timeout interrupts the stage thread; agent calls blocked in I/O give up at their next interruptible point.
+         */
+        private Object runWithTimeout(Stage stage, StageContext context, Duration timeout) throws Exception {
+            if (timeout == null) return stage.body().run(context);
+
+            Thread worker = Thread.currentThread();
+            Object lock = new Object();
+            boolean[] state = {true, false}; // {active, fired}
+            ScheduledFuture<?> timer = watchdog.schedule(() -> {
+                synchronized (lock) {
+                    if (state[0]) {
+                        state[1] = true;
+                        worker.interrupt();
+                    }
+                }
+            }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+            try {
+                return stage.body().run(context);
+            } catch (Exception e) {
+                if (timedOut(timer, lock, state)) {
+                    throw new TimeoutException("Stage [" + stage.name() + "] timed out after " + timeout.toMillis() + " ms.");
+                }
+                throw e;
+            } finally {
+                timedOut(timer, lock, state);
+            }
+        }
+
+        private boolean timedOut(ScheduledFuture<?> timer, Object lock, boolean[] state) {
+            timer.cancel(false);
+            synchronized (lock) {
+                state[0] = false;
+                if (state[1]) {
+                    Thread.interrupted(); // clear the watchdog's interrupt before the thread goes back to the pool
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        /**
+         * Walks back from the last stage to finish, each time to the input producer that finished last.
+         */
+        private void recordCriticalPath(long runStart) {
+            Map<String, Timing> finished;
+            synchronized (this) {
+                finished = new HashMap<>(timings);
+            }
+            if (finished.isEmpty()) return;
+
+            Stage current = pipeline.stages().stream()
+                    .filter(s -> finished.containsKey(s.name()))
+                    .max(Comparator.comparingLong(s -> finished.get(s.name()).endNanos()))
+                    .orElseThrow();
+            LinkedList<Stage> path = new LinkedList<>();
+            while (current != null) {
+                path.addFirst(current);
+                current = current.inputs().stream()
+                        .map(pipeline::producerOf)
+                        .filter(Objects::nonNull)
+                        .filter(s -> finished.containsKey(s.name()))
+                        .max(Comparator.comparingLong(s -> finished.get(s.name()).endNanos()))
+                        .orElse(null);
+            }
+
+            long criticalMillis = path.stream().mapToLong(s -> finished.get(s.name()).millis()).sum();
+            long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStart);
+            jobRepository.recordStageDuration(jobId, "CRITICAL_PATH", criticalMillis);
+            meterRegistry.timer("copilot.pipeline.critical.path", "pipeline", pipeline.name())
+                    .record(criticalMillis, TimeUnit.MILLISECONDS);
+            log.info("Job [{}] pipeline [{}] finished in {} ms. Critical path {} ms: {}", jobId, pipeline.name(),
+                    wallMillis, criticalMillis, path.stream().map(Stage::name).collect(Collectors.joining(" -> ")));
+        }
+    }
+}
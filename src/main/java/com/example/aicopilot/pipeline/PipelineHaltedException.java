@@ -0,0 +1,20 @@
+package com.example.aicopilot.pipeline;
+
+import com.example.aicopilot.dto.JobStatus;
+
+/**
+ * Raised by a stage to end its pipeline early with a final job state; never retried.
+ */
+public class PipelineHaltedException extends RuntimeException {
+
+    private final JobStatus.State state;
+
+    public PipelineHaltedException(JobStatus.State state, String message) {
+        super(message);
+        this.state = state;
+    }
+
+    public JobStatus.State state() {
+        return state;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.aicopilot.pipeline;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One unit of work in a {@link Pipeline}.
+ * A stage starts as soon as every key it consumes is available and publishes its result under the key it produces.
+ * Timeout, attempts and concurrency declared here can be overridden per stage name through
+ * {@code copilot.pipeline.stage.<name>.*} (see {@link PipelineEngine}).
+ *
+ * @param name           stage name, also the key in JobStatus.stageDurations
+ * @param inputs         keys that must be available before the stage starts
+ * @param output         key the stage result is published under (null: side effects only)
+ * @param step           progress step maintained by the engine (null: not shown)
+ * @param timeout        per-attempt timeout (null: none). Enforced by interrupting the stage thread.
+ * @param maxAttempts    attempts before the stage (and the pipeline) fails
+ * @param maxConcurrency instances of this stage running at once across all jobs (0: unlimited)
+ * @param body           the work
+ */
+public record Stage(
+        String name,
+        Set<String> inputs,
+        String output,
+        Step step,
+        Duration timeout,
+        int maxAttempts,
+        int maxConcurrency,
+        Body body
+) {
+    public record Step(String id, String label) {}
+
+    @FunctionalInterface
+    public interface Body {
+        Object run(StageContext context) throws Exception;
+    }
+
+    public static Stage of(String name, Body body) {
+        return new Stage(name, Set.of(), null, null, null, 1, 0, body);
+    }
+
+    public Stage consumes(String... keys) {
+        Set<String> merged = new LinkedHashSet<>(inputs);
+        merged.addAll(List.of(keys));
+        return new Stage(name, Set.copyOf(merged), output, step, timeout, maxAttempts, maxConcurrency, body);
+    }
+
+    public Stage produces(String key) {
+        return new Stage(name, inputs, key, step, timeout, maxAttempts, maxConcurrency, body);
+    }
+
+    public Stage withStep(String stepId, String label) {
+        return new Stage(name, inputs, output, new Step(stepId, label), timeout, maxAttempts, maxConcurrency, body);
+    }
+
+    public Stage withTimeout(Duration attemptTimeout) {
+        return new Stage(name, inputs, output, step, attemptTimeout, maxAttempts, maxConcurrency, body);
+    }
+
+    public Stage withMaxAttempts(int attempts) {
+        return new Stage(name, inputs, output, step, timeout, attempts, maxConcurrency, body);
+    }
+
+    public Stage withMaxConcurrency(int limit) {
+        return new Stage(name, inputs, output, step, timeout, maxAttempts, limit, body);
+    }
+}
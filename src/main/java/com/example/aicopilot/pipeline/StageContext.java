@@ -0,0 +1,61 @@
+package com.example.aicopilot.pipeline;
+
+import com.example.aicopilot.dto.JobStatus;
+
+import java.util.Map;
+
+/**
+ * View of a running pipeline handed to a {@link Stage.Body}.
+ */
+public final class StageContext {
+
+    private final String jobId;
+    private final Map<String, Object> values;
+    private final Map<String, Long> publishedAt;
+    private final int attempt;
+    private final long startTime = System.currentTimeMillis();
+
+    StageContext(String jobId, Map<String, Object> values, Map<String, Long> publishedAt, int attempt) {
+        this.jobId = jobId;
+        this.values = values;
+        this.publishedAt = publishedAt;
+        this.attempt = attempt;
+    }
+
+    public String jobId() {
+        return jobId;
+    }
+
+    /**
+     * Value published under the given key by the caller or an upstream stage.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key) {
+        return (T) values.get(key);
+    }
+
+    /**
+     * Wall-clock time (epoch millis) at which the value became available; the pipeline start for caller-provided values.
+     */
+    public long publishedAtMillis(String key) {
+        Long at = publishedAt.get(key);
+        if (at == null) throw new IllegalArgumentException("No value published under [" + key + "].");
+        return at;
+    }
+
+    public int attempt() {
+        return attempt;
+    }
+
+    public long elapsedMillis() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Stops the pipeline without treating it as an error (e.g. nothing left to generate).
+     * Usage: {@code throw context.halt(State.COMPLETED, "...")}
+     */
+    public PipelineHaltedException halt(JobStatus.State state, String message) {
+        return new PipelineHaltedException(state, message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.aicopilot.pipeline;
+
+/**
+ * Keys of the values exchanged between the stages of the copilot pipelines.
+ */
+public final class StageKeys {
+
+    public static final String USER_REQUEST = "userRequest";           // String
+    public static final String ASSET_IDS = "assetIds";                 // List<String>
+    public static final String CURRENT_PROCESS_JSON = "currentProcess"; // String
+    public static final String DEFINITION = "definition";             // ProcessDefinition
+    public static final String PROCESS = "process";                   // ProcessResponse
+    public static final String DATA = "data";                         // DataEntitiesResponse
+    public static final String DATA_DRAFT = "dataDraft";              // SpeculativeDataModeler.Draft
+    public static final String FORM = "form";                         // FormResponse
+    public static final String BASE_JOB = "baseJob";                  // JobStatus (MODIFY 기준 작업)
+
+    private StageKeys() {
+    }
+}
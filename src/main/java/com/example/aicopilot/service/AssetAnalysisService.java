@@ -2,6 +2,8 @@ package com.example.aicopilot.service;
 
 import com.example.aicopilot.dto.asset.Asset;
 import com.example.aicopilot.dto.definition.ProcessDefinition;
+import com.example.aicopilot.llm.LlmPriority;
+import com.example.aicopilot.llm.PromptBudget;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.langchain4j.data.message.AiMessage;
@@ -14,6 +16,7 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -34,11 +37,16 @@ public class AssetAnalysisService {
     private final ChatLanguageModel chatLanguageModel;
     private final ObjectMapper objectMapper;
     private final AssetRepository assetRepository;
+    private final PromptBudget promptBudget;
+
+    // [Optimization] 문서 본문에 할당되는 입력 토큰 예산 (기존 15000자 절단 대체)
+    @Value("${copilot.llm.budget.asset-analysis.input:6000}")
+    private int assetAnalysisInputTokens;
 
     /**
      * [Phase 1] 비동기 파일 분석 프로세스 시작
      */
-    @Async
+    @Async("assetIngestionExecutor")
     public void processAssetAsync(String assetId, MultipartFile file) {
         try {
             log.info("Starting async analysis for asset: {}", assetId);
@@ -106,8 +114,8 @@ public class AssetAnalysisService {
     private AnalysisResult generateAnalysisResult(String text) {
         if (text == null || text.isEmpty()) return new AnalysisResult("No content extracted.", null);
 
-        // 너무 긴 텍스트는 잘라서 처리
-        String content = text.length() > 15000 ? text.substring(0, 15000) + "..." : text;
+        // 너무 긴 텍스트는 토큰 예산에 맞춰 잘라서 처리
+        String content = promptBudget.fit(text, assetAnalysisInputTokens);
 
         UserMessage msg = UserMessage.from("""
             You are a 'Business Process Analyst'.
@@ -144,7 +152,8 @@ public class AssetAnalysisService {
             """);
 
         try {
-            Response<AiMessage> response = chatLanguageModel.generate(msg);
+            // 업로드 분석은 사용자 대화보다 낮은 PIPELINE 레인에서 실행
+            Response<AiMessage> response = LlmPriority.PIPELINE.call(() -> chatLanguageModel.generate(msg));
             String jsonResponse = response.content().text();
 
             // Markdown Cleanup
@@ -1,29 +1,171 @@
 package com.example.aicopilot.service;
 
 import com.example.aicopilot.dto.asset.Asset;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
-import java.util.Collection;
-import java.util.Map;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * In-Memory Asset Store
+ * <p>
+ * [Optimization] 분석이 끝난(READY/FAILED) 자산은 원문/정의 JSON이 커서 상주 크기를 제한합니다 ({@link #sweep()}).
+ * <ul>
+ *     <li>copilot.store.assets.max-resident-bytes: 넘으면 오래 조회되지 않은 자산부터 {@link SpillStore}로 내려보냄</li>
+ *     <li>copilot.store.assets.spill-idle: 이 시간 동안 조회되지 않은 자산은 내려보냄</li>
+ *     <li>copilot.store.assets.ttl: 업로드 후 이 시간이 지난 자산 삭제 (기본 0 = 삭제 안 함)</li>
+ * </ul>
+ * 내려보낸 자산은 목록 조회용 요약(원문/JSON 제외)만 메모리에 남고, 단건 조회 시 다시 적재됩니다.
  */
+@Slf4j
 @Component
 public class AssetRepository {
-    private final Map<String, Asset> store = new ConcurrentHashMap<>();
+    private static final String NAMESPACE = "assets";
+    // 문자열 필드 외 레코드/엔트리 오버헤드 추정치
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+
+    private final Map<String, Resident> store = new ConcurrentHashMap<>();
+    // Key: 디스크로 내려보낸 자산의 id, Value: 원문/정의 JSON을 뺀 요약
+    private final Map<String, Asset> spilled = new ConcurrentHashMap<>();
+    private final SpillStore spillStore;
+    private final MeterRegistry meterRegistry;
+    private volatile long residentBytes;
+
+    @Value("${copilot.store.assets.ttl:PT0S}")
+    private Duration ttl;
+
+    @Value("${copilot.store.assets.spill-idle:PT1H}")
+    private Duration spillIdle;
+
+    @Value("${copilot.store.assets.max-resident-bytes:128MB}")
+    private DataSize maxResidentBytes;
+
+    private static final class Resident {
+        final Asset asset;
+        final long bytes;
+        volatile long lastAccess = System.currentTimeMillis();
+
+        Resident(Asset asset) {
+            this.asset = asset;
+            this.bytes = ENTRY_OVERHEAD_BYTES + 2L * (length(asset.fileName()) + length(asset.contentType())
+                    + length(asset.extractedText()) + length(asset.description()) + length(asset.processDefinitionJson()));
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+
+    public AssetRepository(SpillStore spillStore, MeterRegistry meterRegistry) {
+        this.spillStore = spillStore;
+        this.meterRegistry = meterRegistry;
+        Tags tags = Tags.of("store", NAMESPACE);
+        meterRegistry.gauge("copilot.store.resident.bytes", tags, this, r -> r.residentBytes);
+        meterRegistry.gauge("copilot.store.resident.entries", tags, store, Map::size);
+        meterRegistry.gauge("copilot.store.spilled.entries", tags, spilled, Map::size);
+    }
 
     public void save(Asset asset) {
-        store.put(asset.id(), asset);
+        store.put(asset.id(), new Resident(asset));
+        if (spilled.remove(asset.id()) != null) spillStore.delete(NAMESPACE, asset.id());
     }
 
     public Optional<Asset> findById(String id) {
-        return Optional.ofNullable(store.get(id));
+        Resident resident = store.get(id);
+        if (resident == null && spilled.containsKey(id)) {
+            resident = store.computeIfAbsent(id, this::reload);
+        }
+        if (resident == null) return Optional.empty();
+        resident.lastAccess = System.currentTimeMillis();
+        return Optional.of(resident.asset);
+    }
+
+    private Resident reload(String id) {
+        if (spilled.remove(id) == null) return null;
+        Asset asset = spillStore.read(NAMESPACE, id, Asset.class);
+        spillStore.delete(NAMESPACE, id);
+        if (asset == null) log.warn("Asset [{}] could not be reloaded from disk.", id);
+        return asset == null ? null : new Resident(asset);
     }
 
+    public void delete(String id) {
+        store.remove(id);
+        if (spilled.remove(id) != null) spillStore.delete(NAMESPACE, id);
+    }
+
+    /**
+     * 디스크로 내려간 자산은 요약(extractedText/processDefinitionJson = null)으로 포함됩니다.
+     */
     public Collection<Asset> findAll() {
-        return store.values();
+        List<Asset> all = new ArrayList<>(store.size() + spilled.size());
+        store.values().forEach(resident -> all.add(resident.asset));
+        all.addAll(spilled.values());
+        return all;
+    }
+
+    /**
+     * [Optimization] 보존 정책 적용: TTL이 지난 자산 삭제, 유휴/초과분 분석 완료 자산을 디스크로 내려보냄.
+     */
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        long ttlMillis = ttl == null || ttl.isZero() || ttl.isNegative() ? Long.MAX_VALUE : ttl.toMillis();
+        long idleMillis = spillIdle == null || spillIdle.isNegative() ? Long.MAX_VALUE : spillIdle.toMillis();
+
+        spilled.forEach((id, summary) -> {
+            if (now - summary.uploadTime() > ttlMillis) evict(id, "ttl");
+        });
+
+        long total = 0;
+        List<Map.Entry<String, Resident>> candidates = new ArrayList<>();
+        for (Map.Entry<String, Resident> entry : store.entrySet()) {
+            Asset asset = entry.getValue().asset;
+            boolean analyzed = asset.status() == Asset.AssetStatus.READY || asset.status() == Asset.AssetStatus.FAILED;
+            if (analyzed && now - asset.uploadTime() > ttlMillis) {
+                evict(entry.getKey(), "ttl");
+                continue;
+            }
+            total += entry.getValue().bytes;
+            if (analyzed) candidates.add(entry);
+        }
+
+        // 오래 조회되지 않은 자산부터
+        candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        long limit = maxResidentBytes == null ? Long.MAX_VALUE : maxResidentBytes.toBytes();
+        for (Map.Entry<String, Resident> entry : candidates) {
+            boolean idle = now - entry.getValue().lastAccess > idleMillis;
+            if (!idle && total <= limit) break;
+            if (spill(entry.getKey(), entry.getValue(), idle ? "idle" : "size")) total -= entry.getValue().bytes;
+        }
+        residentBytes = total;
+    }
+
+    private boolean spill(String id, Resident resident, String reason) {
+        Asset asset = resident.asset;
+        if (!spillStore.write(NAMESPACE, id, asset)) {
+            // 디스크 계층이 없으면 크기 초과분만 버림 (유휴 자산은 메모리에 유지)
+            if ("idle".equals(reason)) return false;
+            if (store.remove(id, resident)) {
+                meterRegistry.counter("copilot.store.evictions", "store", NAMESPACE, "reason", reason).increment();
+                return true;
+            }
+            return false;
+        }
+        spilled.put(id, asset.withStatus(asset.status(), null, asset.description(), null));
+        if (store.remove(id, resident)) return true;
+        // 그 사이 새로 저장됨: 내려보낸 사본은 버림
+        spilled.remove(id);
+        spillStore.delete(NAMESPACE, id);
+        return false;
+    }
+
+    private void evict(String id, String reason) {
+        delete(id);
+        meterRegistry.counter("copilot.store.evictions", "store", NAMESPACE, "reason", reason).increment();
     }
-}
\ No newline at end of file
+}
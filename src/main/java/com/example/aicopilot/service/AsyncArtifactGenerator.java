@@ -4,20 +4,30 @@ import com.example.aicopilot.agent.DataModeler;
 import com.example.aicopilot.agent.FlowAnalyst;
 import com.example.aicopilot.agent.FormUXDesigner;
 import com.example.aicopilot.dto.JobStatus;
-import com.example.aicopilot.dto.ProgressStep;
 import com.example.aicopilot.dto.analysis.AnalysisReport;
 import com.example.aicopilot.dto.dataEntities.DataEntitiesResponse;
 import com.example.aicopilot.dto.form.FormResponse;
-import com.example.aicopilot.event.ProcessGeneratedEvent;
+import com.example.aicopilot.dto.process.ProcessResponse;
+import com.example.aicopilot.llm.LlmPriority;
+import com.example.aicopilot.llm.TokenUsageScope;
+import com.example.aicopilot.pipeline.Stage;
+import com.example.aicopilot.pipeline.StageContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.aicopilot.pipeline.StageKeys.*;
+
 /**
- * [Ver 11.2] 비동기 아티팩트 생성 및 최종 분석(Audit) 통합 로직.
+ * [Ver 11.3] 아티팩트 생성 및 최종 분석(Audit) 단계 정의.
+ * [Optimization] 프로세스 맵 이후 단계로 파이프라인에 합류하며, 의존 관계에 따라 병렬 실행됩니다: (Data -> Form) || Audit.
+ * Audit은 프로세스 맵만 필요하므로 데이터/폼 생성을 기다리지 않습니다. 전체 소요 시간 ≈ 가장 긴 경로.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AsyncArtifactGenerator {
@@ -27,53 +37,155 @@ public class AsyncArtifactGenerator {
     private final FlowAnalyst flowAnalyst; // [New] 분석 에이전트 주입
     private final JobRepository jobRepository;
     private final ObjectMapper objectMapper;
+    private final ShardedFormGenerator shardedFormGenerator;
+    private final IncrementalArtifactService incrementalArtifactService;
+    private final SpeculativeDataModeler speculativeDataModeler;
+
+    /**
+     * {@code PROCESS}와 {@code USER_REQUEST}를 입력으로 받는 후속 단계들.
+     */
+    public List<Stage> stages() {
+        return List.of(
+                Stage.of("DATA", this::designData)
+                        .consumes(USER_REQUEST, PROCESS).produces(DATA)
+                        .withStep("data", "Extracting data attributes"),
+                // 폼은 데이터 엔티티에 의존 (데이터가 준비되는 즉시 시작)
+                Stage.of("FORM", this::designForm)
+                        .consumes(USER_REQUEST, PROCESS, DATA).produces(FORM)
+                        .withStep("form", "Optimizing form layouts"),
+                // Final Audit (Shadow Architect Integration) - 프로세스 맵만으로 실행 가능
+                Stage.of("AUDIT", this::audit)
+                        .consumes(PROCESS)
+                        .withStep("audit", "Auditing logical integrity"));
+    }
+
+    /**
+     * 설계 흐름용 후속 단계. 추측 모드가 켜져 있으면 데이터 모델링이 {@code DEFINITION}(아웃라인)만으로
+     * 맵 생성과 동시에 시작되고, 맵이 나오면 노드 계보(sourceNodeId)를 맞춰 확정합니다. 실패 시에만 다시 생성합니다.
+     */
+    public List<Stage> outlineStages() {
+        if (!speculativeDataModeler.isEnabled()) return stages();
+        return List.of(
+                Stage.of("DATA_SPECULATIVE", this::draftData)
+                        .consumes(USER_REQUEST, DEFINITION).produces(DATA_DRAFT),
+                Stage.of("DATA", this::reconcileData)
+                        .consumes(USER_REQUEST, PROCESS, DATA_DRAFT).produces(DATA)
+                        .withStep("data", "Extracting data attributes"),
+                Stage.of("FORM", this::designForm)
+                        .consumes(USER_REQUEST, PROCESS, DATA).produces(FORM)
+                        .withStep("form", "Optimizing form layouts"),
+                Stage.of("AUDIT", this::audit)
+                        .consumes(PROCESS)
+                        .withStep("audit", "Auditing logical integrity"));
+    }
+
+    /**
+     * [Optimization] MODIFY 후속 단계: 기준 작업({@code BASE_JOB})의 데이터/폼 중 변경되지 않은 노드의 것은 재사용하고
+     * 변경/추가/삭제된 노드에 해당하는 부분만 다시 생성합니다. 변경 범위가 크면 전체 생성으로 돌아갑니다.
+     */
+    public List<Stage> incrementalStages() {
+        return List.of(
+                Stage.of("ARTIFACTS", this::syncArtifacts)
+                        .consumes(USER_REQUEST, PROCESS, BASE_JOB).produces(FORM)
+                        .withStep("sync", "Synchronizing data & forms"),
+                Stage.of("AUDIT", this::audit)
+                        .consumes(PROCESS)
+                        .withStep("audit", "Auditing logical integrity"));
+    }
 
-    @Async
-    @EventListener
-    public void handleProcessGenerated(ProcessGeneratedEvent event) {
-        String jobId = event.getJobId();
-        try {
-            String userRequest = event.getUserRequest();
-            String processJson = objectMapper.writeValueAsString(event.getProcessResponse());
-
-            // 1. Data Modeling Step
-            jobRepository.upsertProgressStep(jobId, "data", "Extracting data attributes", ProgressStep.Status.IN_PROGRESS);
-            long startData = System.currentTimeMillis();
-            DataEntitiesResponse data = dataModeler.designDataModel(userRequest, processJson);
-            jobRepository.saveArtifact(jobId, "DATA", data, System.currentTimeMillis() - startData);
-            jobRepository.upsertProgressStep(jobId, "data", "Data attributes extracted", ProgressStep.Status.COMPLETED);
-
-            // 2. Form UX Design Step
-            jobRepository.upsertProgressStep(jobId, "form", "Optimizing form layouts", ProgressStep.Status.IN_PROGRESS);
+    private DataEntitiesResponse designData(StageContext ctx) throws Exception {
+        DataEntitiesResponse data = generateData(ctx.jobId(), ctx.get(USER_REQUEST), ctx.get(PROCESS));
+        jobRepository.saveArtifact(ctx.jobId(), "DATA", data, ctx.elapsedMillis());
+        return data;
+    }
+
+    private SpeculativeDataModeler.Draft draftData(StageContext ctx) throws Exception {
+        return speculativeDataModeler.draft(ctx.jobId(), ctx.get(USER_REQUEST), ctx.get(DEFINITION));
+    }
+
+    private DataEntitiesResponse reconcileData(StageContext ctx) throws Exception {
+        String jobId = ctx.jobId();
+        ProcessResponse process = ctx.get(PROCESS);
+        // 재시도(attempt > 1)는 이미 추측이 버려진 경우이므로 바로 맵 기반으로 생성
+        Optional<DataEntitiesResponse> speculated = ctx.attempt() > 1 ? Optional.empty()
+                : speculativeDataModeler.reconcile(jobId, ctx.get(DATA_DRAFT), process,
+                        ctx.publishedAtMillis(PROCESS), ctx.publishedAtMillis(DATA_DRAFT));
+        DataEntitiesResponse data = speculated.isPresent()
+                ? speculated.get()
+                : generateData(jobId, ctx.get(USER_REQUEST), process);
+        jobRepository.saveArtifact(jobId, "DATA", data, ctx.elapsedMillis());
+        return data;
+    }
+
+    private FormResponse designForm(StageContext ctx) throws Exception {
+        FormResponse form = generateForm(ctx.jobId(), ctx.get(USER_REQUEST), ctx.get(PROCESS), ctx.get(DATA));
+        jobRepository.saveArtifact(ctx.jobId(), "FORM", form, ctx.elapsedMillis());
+        return form;
+    }
+
+    private FormResponse syncArtifacts(StageContext ctx) throws Exception {
+        String jobId = ctx.jobId();
+        String userRequest = ctx.get(USER_REQUEST);
+        ProcessResponse process = ctx.get(PROCESS);
+        JobStatus base = ctx.get(BASE_JOB);
+
+        IncrementalArtifactService.NodeDiff diff = incrementalArtifactService.diff(base.processResponse(), process);
+        FormResponse form;
+        if (incrementalArtifactService.appliesTo(diff, process, base.dataEntitiesResponse(), base.formResponse())) {
+            IncrementalArtifactService.Patch patch = incrementalArtifactService.regenerate(
+                    jobId, userRequest, process, diff, base.dataEntitiesResponse(), base.formResponse());
+            jobRepository.saveArtifact(jobId, "DATA", patch.data(), ctx.elapsedMillis());
+            form = patch.form();
+        } else {
+            log.info("Job [{}] change touches {} node(s); regenerating all artifacts.", jobId, diff.touched().size());
+            DataEntitiesResponse data = generateData(jobId, userRequest, process);
+            jobRepository.saveArtifact(jobId, "DATA", data, ctx.elapsedMillis());
+            form = generateForm(jobId, userRequest, process, data);
+        }
+        jobRepository.saveArtifact(jobId, "FORM", form, ctx.elapsedMillis());
+        return form;
+    }
+
+    private DataEntitiesResponse generateData(String jobId, String userRequest, ProcessResponse process) throws Exception {
+        String processJson = objectMapper.writeValueAsString(process);
+        try (TokenUsageScope ignored = tokens(jobId, "DATA")) {
+            // [Optimization] Follow-up artifacts run in the PIPELINE lane so interactive calls keep their headroom
+            return LlmPriority.PIPELINE.call(() -> dataModeler.designDataModel(userRequest, processJson));
+        }
+    }
+
+    private FormResponse generateForm(String jobId, String userRequest, ProcessResponse process,
+                                      DataEntitiesResponse data) throws Exception {
+        FormResponse form;
+        if (shardedFormGenerator.appliesTo(process)) {
+            // [Optimization] 큰 프로세스는 USER_TASK 단위로 나눠 병렬 생성 후 병합
+            form = shardedFormGenerator.generate(jobId, userRequest, process, data);
+        } else {
+            String processJson = objectMapper.writeValueAsString(process);
             String dataJson = objectMapper.writeValueAsString(data);
-            long startForm = System.currentTimeMillis();
-            FormResponse form = formUXDesigner.designForm(userRequest, processJson, dataJson);
-            jobRepository.saveArtifact(jobId, "FORM", form, System.currentTimeMillis() - startForm);
-            jobRepository.upsertProgressStep(jobId, "form", "Form layouts optimized", ProgressStep.Status.COMPLETED);
-
-            // 3. Final Audit Step (Shadow Architect Integration)
-            // [Fix] 설계 완료 후 항상 마지막 단계로 분석 로직 실행
-            jobRepository.upsertProgressStep(jobId, "audit", "Auditing logical integrity", ProgressStep.Status.IN_PROGRESS);
-
-            // 프로세스 맵의 노드/엣지 정보를 시각화 응답 객체로부터 추출 (Analysis API 호환 형식)
-            String nodesJson = objectMapper.writeValueAsString(event.getProcessResponse().activities());
-            // 엣지는 노드 내부의 nextActivityId 정보를 기반으로 FlowAnalyst가 내부적으로 판단하거나, 별도 매핑 필요
-            // 여기서는 FlowAnalyst.analyzeGraph 인터페이스에 맞춰 변환 전송
-            AnalysisReport report = flowAnalyst.analyzeGraph(processJson, "[]"); // Simplified for now
-
-            if (report != null && report.results() != null) {
-                jobRepository.saveAnalysisResults(jobId, report.results());
+            try (TokenUsageScope ignored = tokens(jobId, "FORM")) {
+                form = LlmPriority.PIPELINE.call(() -> formUXDesigner.designForm(userRequest, processJson, dataJson));
             }
+        }
+        return form;
+    }
 
-            jobRepository.upsertProgressStep(jobId, "audit", "Logical integrity audited", ProgressStep.Status.COMPLETED);
-
-            // Complete all tasks
-            jobRepository.updateState(jobId, JobStatus.State.COMPLETED, "Architecture Completed Successfully.");
+    private Object audit(StageContext ctx) throws Exception {
+        String jobId = ctx.jobId();
+        String processJson = objectMapper.writeValueAsString(ctx.<ProcessResponse>get(PROCESS));
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            jobRepository.updateState(jobId, JobStatus.State.FAILED, "Critical failure during analysis: " + e.getMessage());
-            jobRepository.upsertProgressStep(jobId, "audit", "Audit failed", ProgressStep.Status.FAILED);
+        // 엣지는 노드 내부의 nextActivityId 정보를 기반으로 FlowAnalyst가 내부적으로 판단
+        AnalysisReport report;
+        try (TokenUsageScope ignored = tokens(jobId, "AUDIT")) {
+            report = LlmPriority.BACKGROUND.call(() -> flowAnalyst.analyzeGraph(processJson, "[]")); // Simplified for now
         }
+        if (report != null && report.results() != null) {
+            jobRepository.saveAnalysisResults(jobId, report.results());
+        }
+        return report;
+    }
+
+    private TokenUsageScope tokens(String jobId, String stage) {
+        return TokenUsageScope.open((prompt, completion) -> jobRepository.recordTokenUsage(jobId, stage, prompt, completion));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,282 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.config.ExecutorSaturatedException;
+import com.example.aicopilot.dto.JobStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [Optimization] Fair-share admission in front of {@link WorkflowOrchestrator}.
+ * <p>
+ * Jobs are queued per client key and dispatched with weighted fair queuing: each job gets a virtual finish tag
+ * {@code max(virtualTime, client's last tag) + cost / weight}, and the lowest tag among clients below their in-flight
+ * cap starts next. A client submitting dozens of jobs therefore only delays its own queue.
+ * <ul>
+ *     <li>copilot.scheduler.max-concurrent-jobs: jobs running at once (all clients)</li>
+ *     <li>copilot.scheduler.max-in-flight-per-client / max-queued-per-client (a full queue answers 429)</li>
+ *     <li>copilot.scheduler.weight.&lt;client key&gt;: share of a client (default 1)</li>
+ * </ul>
+ * Jobs without X-Api-Key / X-Client-Id are keyed by the caller's remote address ({@code anonymous:<address>}), so
+ * unrelated anonymous callers are not capped as one client.
+ * While a job waits, its message shows the position in the client's queue and an estimated start time.
+ * The orchestrator calls {@link #release(String)} when a job finishes.
+ */
+@Slf4j
+@Service
+public class FairShareScheduler {
+
+    public static final String ANONYMOUS = "anonymous";
+
+    private final JobRepository jobRepository;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    @Value("${copilot.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${copilot.scheduler.max-concurrent-jobs:8}")
+    private int maxConcurrentJobs;
+
+    @Value("${copilot.scheduler.max-in-flight-per-client:2}")
+    private int maxInFlightPerClient;
+
+    @Value("${copilot.scheduler.max-queued-per-client:20}")
+    private int maxQueuedPerClient;
+
+    private final Map<String, ClientQueue> clients = new HashMap<>();
+    // Key: jobId of a dispatched job, Value: client key + dispatch time
+    private final Map<String, Running> running = new HashMap<>();
+    private double virtualTime;
+    // EWMA of job run time (dispatch -> release), used for the start estimate
+    private long meanRunMillis;
+    private int queued;
+
+    private static final class ClientQueue {
+        final Deque<Pending> jobs = new ArrayDeque<>();
+        double lastFinishTag;
+        int inFlight;
+    }
+
+    private record Pending(String jobId, String clientKey, Runnable start, double startTag, double finishTag, long enqueuedAt) {}
+
+    private record Running(String clientKey, long startedAt) {}
+
+    // jobs to start + queue messages, computed under the lock and written after it is released
+    private record Batch(long generation, List<Pending> started, Map<String, String> positions) {}
+
+    private final Object publishLock = new Object();
+    private long generation;
+    private long publishedGeneration;
+
+    public FairShareScheduler(JobRepository jobRepository, MeterRegistry meterRegistry, Environment environment) {
+        this.jobRepository = jobRepository;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        meterRegistry.gauge("copilot.scheduler.queued", this, FairShareScheduler::queuedCount);
+        meterRegistry.gauge("copilot.scheduler.running", this, FairShareScheduler::runningCount);
+    }
+
+    /**
+     * Queues the job for the client. {@code start} must only hand the job to the orchestrator.
+     * Callers without a key share the {@link #ANONYMOUS} queue; the controller keys them by remote address instead.
+     *
+     * @throws RejectedExecutionException if the client's queue is full, or the job cannot be started and no running
+     *                                    job would retry it
+     */
+    public void submit(String clientKey, String jobId, Runnable start) {
+        if (!enabled) {
+            start.run();
+            return;
+        }
+        String key = clientKey == null || clientKey.isBlank() ? ANONYMOUS : clientKey;
+        Batch batch;
+        synchronized (this) {
+            ClientQueue queue = clients.computeIfAbsent(key, k -> new ClientQueue());
+            if (queue.jobs.size() >= maxQueuedPerClient) {
+                meterRegistry.counter("copilot.scheduler.rejected").increment();
+                long retryAfter = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(meanRunMillis));
+                throw new ExecutorSaturatedException("scheduler:" + key, queue.jobs.size(), retryAfter);
+            }
+            double startTag = Math.max(virtualTime, queue.lastFinishTag);
+            double finishTag = startTag + 1.0 / weightOf(key);
+            queue.lastFinishTag = finishTag;
+            queue.jobs.add(new Pending(jobId, key, start, startTag, finishTag, System.currentTimeMillis()));
+            queued++;
+            batch = dispatch();
+        }
+        publishAndStart(batch, jobId);
+    }
+
+    /**
+     * Frees the job's slot and starts the next jobs. Unknown ids are ignored.
+     */
+    public void release(String jobId) {
+        if (!enabled) return;
+        Batch batch;
+        synchronized (this) {
+            Running done = running.remove(jobId);
+            if (done == null) return;
+            long runMillis = System.currentTimeMillis() - done.startedAt();
+            meanRunMillis = meanRunMillis == 0 ? runMillis : (meanRunMillis * 9 + runMillis) / 10;
+            ClientQueue queue = clients.get(done.clientKey());
+            if (queue != null) queue.inFlight--;
+            batch = dispatch();
+        }
+        publishAndStart(batch, null);
+    }
+
+    // caller holds the lock. Reserves slots for the next jobs; they are started after the lock is released
+    private Batch dispatch() {
+        List<Pending> started = new ArrayList<>();
+        while (running.size() < maxConcurrentJobs) {
+            Pending next = null;
+            for (ClientQueue queue : clients.values()) {
+                dropCancelled(queue);
+                Pending head = queue.jobs.peek();
+                if (head == null || queue.inFlight >= maxInFlightPerClient) continue;
+                if (next == null || head.finishTag() < next.finishTag()) next = head;
+            }
+            if (next == null) break;
+
+            ClientQueue queue = clients.get(next.clientKey());
+            queue.jobs.poll();
+            queued--;
+            virtualTime = Math.max(virtualTime, next.startTag());
+            queue.inFlight++;
+            running.put(next.jobId(), new Running(next.clientKey(), System.currentTimeMillis()));
+            started.add(next);
+        }
+        advanceVirtualTime();
+        clients.values().removeIf(q -> q.jobs.isEmpty() && q.inFlight == 0 && q.lastFinishTag <= virtualTime);
+        return new Batch(++generation, started, positions());
+    }
+
+    /**
+     * Writes the state messages outside the scheduler lock (job watchers run on the updating thread), then starts the
+     * reserved jobs. A job the orchestration pool rejects goes back to the head of its queue and is retried on the next
+     * release; if nothing is running to release, the submitting caller gets the rejection (429) instead of a job that
+     * never starts.
+     */
+    private void publishAndStart(Batch batch, String submittedJobId) {
+        publish(batch);
+        boolean requeued = false;
+        for (Pending job : batch.started()) {
+            try {
+                job.start().run();
+                meterRegistry.timer("copilot.scheduler.queue.wait")
+                        .record(System.currentTimeMillis() - job.enqueuedAt(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                boolean rejectCaller;
+                synchronized (this) {
+                    requeue(job);
+                    rejectCaller = job.jobId().equals(submittedJobId) && running.isEmpty();
+                    if (rejectCaller) unqueue(job);
+                }
+                if (rejectCaller) {
+                    meterRegistry.counter("copilot.scheduler.rejected").increment();
+                    throw e;
+                }
+                log.warn("Job [{}] could not be started, kept in its queue: {}", job.jobId(), e.getMessage());
+                requeued = true;
+            }
+        }
+        if (requeued) {
+            Batch positions;
+            synchronized (this) {
+                positions = new Batch(++generation, List.of(), positions());
+            }
+            publish(positions);
+        }
+    }
+
+    // caller holds the lock. Virtual time follows the smallest start tag still waiting; with nothing waiting it jumps
+    // to the last finish tag, so idle clients' queues can be dropped and a returning client starts level with the rest
+    private void advanceVirtualTime() {
+        double backlogStart = Double.MAX_VALUE;
+        double lastFinish = virtualTime;
+        for (ClientQueue queue : clients.values()) {
+            Pending head = queue.jobs.peek();
+            if (head != null) backlogStart = Math.min(backlogStart, head.startTag());
+            lastFinish = Math.max(lastFinish, queue.lastFinishTag);
+        }
+        virtualTime = Math.max(virtualTime, backlogStart == Double.MAX_VALUE ? lastFinish : backlogStart);
+    }
+
+    // caller holds the lock
+    private void requeue(Pending job) {
+        running.remove(job.jobId());
+        ClientQueue queue = clients.computeIfAbsent(job.clientKey(), k -> new ClientQueue());
+        queue.inFlight--;
+        queue.jobs.addFirst(job);
+        queued++;
+    }
+
+    // caller holds the lock
+    private void unqueue(Pending job) {
+        ClientQueue queue = clients.get(job.clientKey());
+        if (queue != null && queue.jobs.remove(job)) queued--;
+    }
+
+    // dispatched jobs always get their message; queue positions are skipped if a newer batch was already written
+    private void publish(Batch batch) {
+        synchronized (publishLock) {
+            batch.started().forEach(job ->
+                    jobRepository.updateState(job.jobId(), JobStatus.State.PENDING, "Waiting for job..."));
+            if (batch.generation() < publishedGeneration) return;
+            publishedGeneration = batch.generation();
+            batch.positions().forEach((jobId, message) -> jobRepository.updateState(jobId, JobStatus.State.PENDING, message));
+        }
+    }
+
+    private void dropCancelled(ClientQueue queue) {
+        int before = queue.jobs.size();
+        queue.jobs.removeIf(p -> jobRepository.isCancelled(p.jobId()));
+        queued -= before - queue.jobs.size();
+    }
+
+    /**
+     * "Position in the client's queue + estimated start" message of every waiting job (caller holds the lock).
+     * The estimate assumes dispatch in finish-tag order at the mean job run time.
+     */
+    private Map<String, String> positions() {
+        List<Pending> waiting = new ArrayList<>();
+        clients.values().forEach(q -> waiting.addAll(q.jobs));
+        if (waiting.isEmpty()) return Map.of();
+        waiting.sort(Comparator.comparingDouble(Pending::finishTag));
+
+        long mean = meanRunMillis > 0 ? meanRunMillis : TimeUnit.SECONDS.toMillis(30);
+        Map<String, Integer> positionByClient = new HashMap<>();
+        Map<String, String> messages = new LinkedHashMap<>();
+        for (int rank = 0; rank < waiting.size(); rank++) {
+            Pending pending = waiting.get(rank);
+            int position = positionByClient.merge(pending.clientKey(), 1, Integer::sum);
+            // waves ahead of the job: globally by slots, and within its own queue by the per-client cap
+            long globalWaves = (rank + running.size()) / Math.max(1, maxConcurrentJobs);
+            long clientWaves = (position - 1 + clients.get(pending.clientKey()).inFlight) / Math.max(1, maxInFlightPerClient);
+            long etaSeconds = TimeUnit.MILLISECONDS.toSeconds(Math.max(globalWaves, clientWaves) * mean);
+            messages.put(pending.jobId(), String.format(
+                    "Queued: position %d in your queue, estimated start in ~%ds.", position, etaSeconds));
+        }
+        return messages;
+    }
+
+    private double weightOf(String clientKey) {
+        double weight = environment.getProperty("copilot.scheduler.weight." + clientKey, Double.class, 1.0);
+        return weight > 0 ? weight : 1.0;
+    }
+
+    private synchronized int queuedCount() {
+        return queued;
+    }
+
+    private synchronized int runningCount() {
+        return running.size();
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.agent.ArtifactPatcher;
+import com.example.aicopilot.dto.ArtifactPatchResponse;
+import com.example.aicopilot.dto.dataEntities.DataEntitiesGroup;
+import com.example.aicopilot.dto.dataEntities.DataEntitiesResponse;
+import com.example.aicopilot.dto.dataEntities.DataEntity;
+import com.example.aicopilot.dto.form.FormDefinitions;
+import com.example.aicopilot.dto.form.FormField;
+import com.example.aicopilot.dto.form.FormFieldGroup;
+import com.example.aicopilot.dto.form.FormResponse;
+import com.example.aicopilot.dto.process.Activity;
+import com.example.aicopilot.dto.process.ProcessResponse;
+import com.example.aicopilot.llm.LlmPriority;
+import com.example.aicopilot.llm.TokenUsageScope;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * [Optimization] Incremental data/form regeneration after a MODIFY.
+ * <p>
+ * The node diff between the base job's process and the modified one decides what is stale: entities whose
+ * sourceNodeId is a changed/added/removed node, and forms that show such a node or bind such an entity.
+ * Everything else is reused from the base job. Changed and added nodes are redesigned with one small
+ * {@link ArtifactPatcher} call; removals alone are handled locally without any LLM call.
+ * Flow-only edits (nextActivityId, position) do not make a node stale.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IncrementalArtifactService {
+
+    private final ArtifactPatcher artifactPatcher;
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${copilot.modify.incremental.enabled:true}")
+    private boolean enabled;
+
+    // 이 비율을 넘는 노드가 바뀌면 전체 재생성이 더 정확하고 비용 차이도 작음
+    @Value("${copilot.modify.incremental.max-changed-ratio:0.5}")
+    private double maxChangedRatio;
+
+    public record NodeDiff(Set<String> added, Set<String> changed, Set<String> removed) {
+        public Set<String> touched() {
+            Set<String> touched = new LinkedHashSet<>(added);
+            touched.addAll(changed);
+            return touched;
+        }
+
+        public Set<String> stale() {
+            Set<String> stale = touched();
+            stale.addAll(removed);
+            return stale;
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    public record Patch(DataEntitiesResponse data, FormResponse form) {}
+
+    public NodeDiff diff(ProcessResponse before, ProcessResponse after) {
+        Map<String, Activity> previous = byId(before);
+        Map<String, Activity> current = byId(after);
+        Set<String> added = new LinkedHashSet<>();
+        Set<String> changed = new LinkedHashSet<>();
+        current.forEach((id, activity) -> {
+            Activity old = previous.get(id);
+            if (old == null) added.add(id);
+            else if (!sameContent(old, activity)) changed.add(id);
+        });
+        Set<String> removed = new LinkedHashSet<>(previous.keySet());
+        removed.removeAll(current.keySet());
+        return new NodeDiff(added, changed, removed);
+    }
+
+    /**
+     * Incremental mode needs the base job's artifacts and a change that is small relative to the process.
+     */
+    public boolean appliesTo(NodeDiff diff, ProcessResponse after, DataEntitiesResponse baseData, FormResponse baseForm) {
+        if (!enabled || baseData == null || baseForm == null) return false;
+        int size = after.activities() == null ? 0 : after.activities().size();
+        return size > 0 && diff.touched().size() <= Math.max(1, size * maxChangedRatio);
+    }
+
+    public Patch regenerate(String jobId, String userRequest, ProcessResponse after, NodeDiff diff,
+                            DataEntitiesResponse baseData, FormResponse baseForm) throws Exception {
+        Set<String> stale = diff.stale();
+        List<DataEntity> baseEntities = baseData.entities() == null ? List.of() : baseData.entities();
+        List<DataEntity> kept = baseEntities.stream().filter(e -> !stale.contains(e.sourceNodeId())).toList();
+        Set<String> droppedAliases = baseEntities.stream()
+                .filter(e -> stale.contains(e.sourceNodeId()))
+                .map(DataEntity::alias)
+                .collect(Collectors.toSet());
+
+        List<FormDefinitions> baseForms = baseForm.formDefinitions() == null ? List.of() : baseForm.formDefinitions();
+        Predicate<FormDefinitions> isStale = form -> touches(form, stale, droppedAliases);
+        List<FormDefinitions> keptForms = baseForms.stream().filter(isStale.negate()).toList();
+        List<FormDefinitions> staleForms = baseForms.stream().filter(isStale).toList();
+
+        List<DataEntity> entities = new ArrayList<>(kept);
+        List<DataEntitiesGroup> groups = retainGroups(baseData.groups(), ids(kept));
+        List<FormDefinitions> forms = new ArrayList<>(keptForms);
+
+        String outcome;
+        if (diff.touched().isEmpty()) {
+            // 삭제만 있는 경우: LLM 호출 없이 참조만 정리
+            forms.addAll(staleForms);
+            outcome = diff.isEmpty() ? "reused" : "local";
+        } else {
+            ArtifactPatchResponse patch = callPatcher(jobId, userRequest, after, diff, kept, staleForms);
+            Set<String> keptAliases = kept.stream().map(DataEntity::alias).collect(Collectors.toSet());
+            List<DataEntity> added = patch.entities() == null ? List.of() : patch.entities().stream()
+                    .filter(e -> diff.touched().contains(e.sourceNodeId()) && !keptAliases.contains(e.alias()))
+                    .toList();
+            entities.addAll(added);
+            groups.addAll(retainGroups(patch.groups(), ids(added)));
+            if (patch.formDefinitions() != null) forms.addAll(patch.formDefinitions());
+            outcome = "patched";
+        }
+
+        Set<String> aliases = entities.stream().map(DataEntity::alias).collect(Collectors.toSet());
+        Set<String> nodeIds = byId(after).keySet();
+        List<FormDefinitions> cleaned = forms.stream()
+                .map(form -> clean(form, aliases, nodeIds))
+                .filter(Objects::nonNull)
+                .toList();
+
+        meterRegistry.counter("copilot.modify.incremental", "outcome", outcome).increment();
+        log.info("Job [{}] incremental artifacts ({}): {} added / {} changed / {} removed node(s), {} of {} entities and {} of {} forms reused.",
+                jobId, outcome, diff.added().size(), diff.changed().size(), diff.removed().size(),
+                kept.size(), baseEntities.size(), keptForms.size(), baseForms.size());
+        return new Patch(new DataEntitiesResponse(entities, groups), new FormResponse(cleaned));
+    }
+
+    private ArtifactPatchResponse callPatcher(String jobId, String userRequest, ProcessResponse after, NodeDiff diff,
+                                              List<DataEntity> kept, List<FormDefinitions> staleForms) throws Exception {
+        String outline = after.activities().stream()
+                .map(a -> String.format("%s | %s | %s | next=%s", a.id(), a.type(), a.label(), a.nextActivityId()))
+                .collect(Collectors.joining("\n"));
+        List<Activity> touched = after.activities().stream().filter(a -> diff.touched().contains(a.id())).toList();
+        String existing = kept.stream()
+                .map(e -> String.format("%s | %s | %s", e.alias(), e.label(), e.sourceNodeId()))
+                .collect(Collectors.joining("\n"));
+        String changedNodesJson = objectMapper.writeValueAsString(touched);
+        String staleFormsJson = objectMapper.writeValueAsString(staleForms);
+
+        try (TokenUsageScope ignored = TokenUsageScope.open((prompt, completion) ->
+                jobRepository.recordTokenUsage(jobId, "ARTIFACT_PATCH", prompt, completion))) {
+            return LlmPriority.PIPELINE.call(() -> artifactPatcher.patch(userRequest, outline, changedNodesJson,
+                    existing.isEmpty() ? "(none)" : existing, staleFormsJson));
+        }
+    }
+
+    private static boolean touches(FormDefinitions form, Set<String> staleNodes, Set<String> droppedAliases) {
+        if (form.fieldGroups() == null) return false;
+        for (FormFieldGroup group : form.fieldGroups()) {
+            if (intersects(group.visibleActivityIds(), staleNodes)) return true;
+            if (group.fields() == null) continue;
+            for (FormField field : group.fields()) {
+                if (droppedAliases.contains(field.entityAlias())
+                        || intersects(field.visibleActivityIds(), staleNodes)
+                        || intersects(field.readonlyActivityIds(), staleNodes)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops fields bound to unknown entities and visibility entries of removed nodes; empty groups/forms disappear.
+     */
+    private static FormDefinitions clean(FormDefinitions form, Set<String> aliases, Set<String> nodeIds) {
+        if (form.fieldGroups() == null) return form;
+        List<FormFieldGroup> groups = new ArrayList<>();
+        for (FormFieldGroup group : form.fieldGroups()) {
+            List<FormField> fields = group.fields() == null ? List.of() : group.fields().stream()
+                    .filter(f -> aliases.contains(f.entityAlias()))
+                    .map(f -> new FormField(f.id(), f.entityAlias(), f.label(), f.component(), f.required(),
+                            retain(f.visibleActivityIds(), nodeIds), retain(f.readonlyActivityIds(), nodeIds)))
+                    .toList();
+            if (fields.isEmpty()) continue;
+            groups.add(new FormFieldGroup(group.id(), group.name(), group.description(),
+                    retain(group.visibleActivityIds(), nodeIds), fields));
+        }
+        return groups.isEmpty() ? null : new FormDefinitions(form.formName(), form.formDescription(), groups);
+    }
+
+    private static List<DataEntitiesGroup> retainGroups(List<DataEntitiesGroup> groups, Set<String> entityIds) {
+        List<DataEntitiesGroup> retained = new ArrayList<>();
+        if (groups == null) return retained;
+        for (DataEntitiesGroup group : groups) {
+            List<String> ids = retain(group.entityIds(), entityIds);
+            if (ids == null || ids.isEmpty()) continue;
+            retained.add(new DataEntitiesGroup(group.id(), group.alias(), group.name(), group.description(), ids));
+        }
+        return retained;
+    }
+
+    private static boolean sameContent(Activity a, Activity b) {
+        return Objects.equals(a.type(), b.type())
+                && Objects.equals(a.label(), b.label())
+                && Objects.equals(a.description(), b.description())
+                && Objects.equals(a.swimlaneId(), b.swimlaneId())
+                && Objects.equals(a.configuration(), b.configuration())
+                && Objects.equals(a.inputMapping(), b.inputMapping());
+    }
+
+    private static Map<String, Activity> byId(ProcessResponse process) {
+        Map<String, Activity> byId = new LinkedHashMap<>();
+        if (process != null && process.activities() != null) {
+            process.activities().forEach(a -> byId.put(a.id(), a));
+        }
+        return byId;
+    }
+
+    private static Set<String> ids(List<DataEntity> entities) {
+        return entities.stream().map(DataEntity::id).collect(Collectors.toSet());
+    }
+
+    private static boolean intersects(List<String> values, Set<String> set) {
+        return values != null && values.stream().anyMatch(set::contains);
+    }
+
+    private static List<String> retain(List<String> values, Set<String> allowed) {
+        return values == null ? null : values.stream().filter(allowed::contains).toList();
+    }
+}
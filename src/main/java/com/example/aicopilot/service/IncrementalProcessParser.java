@@ -0,0 +1,100 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.dto.process.Activity;
+import com.example.aicopilot.dto.process.ProcessResponse;
+import com.example.aicopilot.dto.process.Swimlane;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser for a streamed ProcessResponse JSON document.
+ * Feeds chunks into Jackson's non-blocking parser and, as soon as a {@link Swimlane} / {@link Activity}
+ * closes, emits a partial ProcessResponse holding everything completed so far.
+ * Not thread-safe: one instance per stream.
+ */
+class IncrementalProcessParser {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final Consumer<ProcessResponse> onProgress;
+    private final List<Swimlane> swimlanes = new ArrayList<>();
+    private final List<Activity> activities = new ArrayList<>();
+
+    private int depth;
+    private String rootField;
+    private String processName;
+    private String description;
+    private TokenBuffer element;
+    private int elementDepth;
+
+    IncrementalProcessParser(ObjectMapper objectMapper, Consumer<ProcessResponse> onProgress) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.onProgress = onProgress;
+    }
+
+    void feed(String chunk) throws IOException {
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        feeder.feedInput(bytes, 0, bytes.length);
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (element != null) {
+                element.copyCurrentEvent(parser);
+                if (token.isStructStart()) elementDepth++;
+                else if (token.isStructEnd() && --elementDepth == 0) emit();
+                continue;
+            }
+
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    depth++;
+                    // depth 3 = element object inside root-level "swimlanes"/"activities" array
+                    if (token == JsonToken.START_OBJECT && depth == 3 && isElementArray()) {
+                        element = new TokenBuffer(parser);
+                        element.copyCurrentEvent(parser);
+                        elementDepth = 1;
+                        depth--;
+                    }
+                }
+                case END_OBJECT, END_ARRAY -> depth--;
+                case FIELD_NAME -> {
+                    if (depth == 1) rootField = parser.currentName();
+                }
+                case VALUE_STRING -> {
+                    if (depth == 1 && "processName".equals(rootField)) processName = parser.getText();
+                    if (depth == 1 && "description".equals(rootField)) description = parser.getText();
+                }
+                default -> { }
+            }
+        }
+    }
+
+    private boolean isElementArray() {
+        return "swimlanes".equals(rootField) || "activities".equals(rootField);
+    }
+
+    private void emit() throws IOException {
+        try (JsonParser elementParser = element.asParser(objectMapper)) {
+            if ("swimlanes".equals(rootField)) {
+                swimlanes.add(objectMapper.readValue(elementParser, Swimlane.class));
+            } else {
+                activities.add(objectMapper.readValue(elementParser, Activity.class));
+            }
+        } finally {
+            element = null;
+        }
+        onProgress.accept(new ProcessResponse(processName, description, List.copyOf(swimlanes), List.copyOf(activities)));
+    }
+}
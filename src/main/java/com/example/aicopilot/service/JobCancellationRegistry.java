@@ -0,0 +1,134 @@
+package com.example.aicopilot.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * [New] Cooperative job cancellation.
+ * Threads working on a job bind themselves to it; cancelling the job marks it CANCELLED and interrupts those threads.
+ * An interrupted thread stops waiting for its LLM call (gateway queue, hedge wait, provider call): GatewayChatModel
+ * cancels the provider task and releases the permit, and the pipeline skips its remaining stages.
+ * A client (X-Client-Id) has at most one active job: submitting a new one supersedes the previous one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobCancellationRegistry {
+
+    private final JobRepository jobRepository;
+    private final MeterRegistry meterRegistry;
+
+    // Key: jobId, Value: threads currently working on the job
+    private final Map<String, Set<Thread>> workers = new ConcurrentHashMap<>();
+    // Key: client key, Value: the client's latest job
+    private final Map<String, String> activeJobByClient = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> boundJob = new ThreadLocal<>();
+
+    @Value("${copilot.jobs.supersede.enabled:true}")
+    private boolean supersedeEnabled;
+
+    /**
+     * Thread registration for a job; closing it unregisters the thread and clears a pending cancellation interrupt.
+     */
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Registers the new job as the client's active job and cancels the one it replaces.
+     */
+    public void supersede(String clientKey, String jobId) {
+        if (!supersedeEnabled || clientKey == null || clientKey.isBlank()) return;
+        String previous = activeJobByClient.put(clientKey, jobId);
+        if (previous != null && !previous.equals(jobId) && cancel(previous, "Superseded by a newer request.", "superseded")) {
+            log.info("Job [{}] superseded by [{}].", previous, jobId);
+        }
+    }
+
+    /**
+     * @return false if the job is unknown or already finished
+     */
+    public boolean cancel(String jobId, String message) {
+        return cancel(jobId, message, "user");
+    }
+
+    private boolean cancel(String jobId, String message, String reason) {
+        String target = jobRepository.aliasTarget(jobId);
+        if (target != null) {
+            // coalesced request: detach it, the shared run is cancelled only when nobody else waits for it
+            if (!jobRepository.detachAlias(jobId, message)) return false;
+            if (jobRepository.aliasCount(target) == 0 && jobRepository.markCancelled(target, message)) {
+                interruptWorkers(target);
+            }
+        } else {
+            if (!jobRepository.markCancelled(jobId, message)) return false;
+            interruptWorkers(jobId);
+        }
+        meterRegistry.counter("copilot.jobs.cancelled", "reason", reason).increment();
+        return true;
+    }
+
+    // state is CANCELLED before the interrupt, so a thread binding concurrently either sees it or gets interrupted
+    private void interruptWorkers(String jobId) {
+        workers.computeIfPresent(jobId, (id, threads) -> {
+            threads.forEach(Thread::interrupt);
+            return threads;
+        });
+    }
+
+    public boolean isCancelled(String jobId) {
+        return jobRepository.isCancelled(jobId);
+    }
+
+    public void throwIfCancelled(String jobId) {
+        if (isCancelled(jobId)) throw new CancellationException("Job [" + jobId + "] was cancelled.");
+    }
+
+    /**
+     * Binds the current thread to the job until the returned binding is closed. Nested bindings are no-ops.
+     *
+     * @throws CancellationException if the job is already cancelled
+     */
+    public Binding bind(String jobId) {
+        if (jobId.equals(boundJob.get())) return () -> {};
+
+        Thread thread = Thread.currentThread();
+        workers.compute(jobId, (id, threads) -> {
+            Set<Thread> bound = threads != null ? threads : new HashSet<>();
+            bound.add(thread);
+            return bound;
+        });
+        boundJob.set(jobId);
+        Binding binding = () -> {
+            boundJob.remove();
+            workers.computeIfPresent(jobId, (id, threads) -> {
+                threads.remove(thread);
+                return threads.isEmpty() ? null : threads;
+            });
+            // no more interrupts can arrive once unregistered; don't hand a stale flag back to the pool
+            if (isCancelled(jobId)) Thread.interrupted();
+        };
+        if (isCancelled(jobId)) {
+            binding.close();
+            throw new CancellationException("Job [" + jobId + "] was cancelled.");
+        }
+        return binding;
+    }
+
+    /**
+     * Forgets the job's client registration once the job has finished.
+     */
+    public void release(String jobId) {
+        activeJobByClient.values().removeIf(id -> id.equals(jobId) || jobId.equals(jobRepository.aliasTarget(id)));
+    }
+}
@@ -5,62 +5,529 @@ import com.example.aicopilot.dto.analysis.AnalysisResult;
 import com.example.aicopilot.dto.dataEntities.DataEntitiesResponse;
 import com.example.aicopilot.dto.form.FormResponse;
 import com.example.aicopilot.dto.process.ProcessResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+/**
+ * 작업 상태 저장소.
+ * [Optimization] 작업마다 가변 상태({@link JobState})를 두고 작업 단위 락 안에서 제자리 갱신합니다.
+ * 갱신은 버전만 올리고, 불변 {@link JobStatus} 스냅샷은 조회 시 버전이 바뀐 경우에만 만들어집니다
+ * (바뀌지 않은 목록/맵은 이전 스냅샷의 복사본을 재사용).
+ * <p>
+ * [Optimization] 보존 정책 ({@link #sweep()}, StoreJanitor가 주기적으로 호출):
+ * <ul>
+ *     <li>copilot.store.jobs.ttl: 마지막 갱신 후 이 시간이 지난 종료 작업은 메모리/디스크에서 삭제</li>
+ *     <li>copilot.store.jobs.spill-idle: 이 시간 동안 조회/갱신이 없던 종료 작업은 {@link SpillStore}로 내려보냄</li>
+ *     <li>copilot.store.jobs.max-resident-bytes: 상주 크기(JSON 기준)가 넘으면 오래 조회되지 않은 종료 작업부터 내려보냄</li>
+ * </ul>
+ * 내려보낸 작업은 조회/갱신 시 다시 적재됩니다. 진행 중인 작업은 대상이 아닙니다.
+ */
+@Slf4j
 @Component
 public class JobRepository {
-    private final Map<String, JobStatus> store = new ConcurrentHashMap<>();
+    private static final String NAMESPACE = "jobs";
+
+    private final Map<String, JobState> store = new ConcurrentHashMap<>();
+    // Key: 디스크로 내려보낸 작업의 jobId (재적재 없이 상태/버전 확인용)
+    private final Map<String, Spilled> spilled = new ConcurrentHashMap<>();
+    // [Optimization] 요청 병합(coalescing): Key: 요청자에게 발급된 jobId, Value: 실제 실행 중인 작업의 jobId
+    private final Map<String, String> aliases = new ConcurrentHashMap<>();
+    // [New] Key: 구독한 jobId (alias 포함), Value: 상태가 바뀔 때마다 호출되는 콜백
+    private final Map<String, Set<Runnable>> watchers = new ConcurrentHashMap<>();
+    private final SpillStore spillStore;
+    private final MeterRegistry meterRegistry;
+    private volatile long residentBytes;
+
+    @Value("${copilot.store.jobs.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${copilot.store.jobs.spill-idle:PT15M}")
+    private Duration spillIdle;
+
+    @Value("${copilot.store.jobs.max-resident-bytes:256MB}")
+    private DataSize maxResidentBytes;
+
+    private record Spilled(JobStatus.State state, long version, long updatedAt, Map<String, Long> artifactBytes) {}
+
+    // 결과물 외 상태(메시지, 단계, 소요 시간, 토큰 사용량)의 크기 추정치
+    private static final long BASE_BYTES = 512;
+    private static final long ENTRY_BYTES = 64;
+
+    /**
+     * 상태 변경 구독. 닫으면 더 이상 호출되지 않습니다.
+     */
+    public interface Watch extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public JobRepository(SpillStore spillStore, MeterRegistry meterRegistry) {
+        this.spillStore = spillStore;
+        this.meterRegistry = meterRegistry;
+        Tags tags = Tags.of("store", NAMESPACE);
+        meterRegistry.gauge("copilot.store.resident.bytes", tags, this, r -> r.residentBytes);
+        meterRegistry.gauge("copilot.store.resident.entries", tags, store, Map::size);
+        meterRegistry.gauge("copilot.store.spilled.entries", tags, spilled, Map::size);
+    }
+
+    /**
+     * 작업 하나의 가변 상태. 모든 필드는 이 객체의 모니터 안에서만 바뀌며, 바뀔 때마다 version이 1 증가합니다.
+     */
+    static final class JobState {
+        private final String jobId;
+        private final long startTime;
+        private JobStatus.State state;
+        private String message;
+        private String lastUpdatedStage;
+        private long totalElapsedMillis;
+        private final Map<String, Long> stageDurations;
+        private final List<ProgressStep> progressSteps;
+        private List<AnalysisResult> analysisResults;
+        private ProcessResponse processResponse;
+        private DataEntitiesResponse dataEntitiesResponse;
+        private FormResponse formResponse;
+        private final Map<String, StageTokenUsage> tokenUsage;
+
+        private volatile long version;
+        private volatile JobStatus snapshot;
+        private long updatedAt;
+        private volatile long lastAccess;
+        // 보존 정책용 크기 추정: 결과물별 JSON 크기 (저장 시점에 한 번 측정, 부분 결과는 측정하지 않음)
+        private final Map<String, Long> artifactBytes = new HashMap<>();
+        // 디스크로 내려간 뒤 남은 참조로 들어온 갱신은 재적재된 상태에 다시 적용
+        private boolean evicted;
+        // 마지막 스냅샷 이후 바뀌지 않은 컬렉션은 그 복사본을 그대로 사용
+        private Map<String, Long> durationsCopy;
+        private List<ProgressStep> stepsCopy;
+        private Map<String, StageTokenUsage> tokenUsageCopy;
+        // [New] 변경 기록 (delta 조회용): 항목별로 마지막으로 바뀐 version. 기록이 없는 항목은 baseVersion에 바뀐 것으로 간주
+        // (재적재/분리된 상태는 그 이전 이력이 없으므로 baseVersion 이전을 기준으로 한 조회에는 전체가 포함됨)
+        private final long baseVersion;
+        private long stateVersion;
+        private long analysisVersion;
+        private long processVersion;
+        private long dataVersion;
+        private long formVersion;
+        private final Map<String, Long> stepVersions = new HashMap<>();
+        private final Map<String, Long> durationVersions = new HashMap<>();
+        private final Map<String, Long> tokenVersions = new HashMap<>();
+
+        JobState(JobStatus status) {
+            this(status.jobId(), status);
+        }
+
+        JobState(String jobId, JobStatus status) {
+            this.jobId = jobId;
+            this.startTime = status.startTime();
+            this.state = status.state();
+            this.message = status.message();
+            this.lastUpdatedStage = status.lastUpdatedStage();
+            this.totalElapsedMillis = status.totalElapsedMillis();
+            this.stageDurations = new HashMap<>(status.stageDurations());
+            this.progressSteps = new ArrayList<>(status.progressSteps());
+            this.analysisResults = status.analysisResults();
+            this.processResponse = status.processResponse();
+            this.dataEntitiesResponse = status.dataEntitiesResponse();
+            this.formResponse = status.formResponse();
+            this.tokenUsage = new HashMap<>(status.tokenUsage());
+            this.version = status.version();
+            this.baseVersion = version;
+            this.stateVersion = version;
+            this.analysisVersion = version;
+            this.processVersion = version;
+            this.dataVersion = version;
+            this.formVersion = version;
+            this.updatedAt = status.startTime() + status.totalElapsedMillis();
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        // caller holds the monitor
+        private void changed() {
+            updatedAt = System.currentTimeMillis();
+            lastAccess = updatedAt;
+            totalElapsedMillis = updatedAt - startTime;
+            version++;
+        }
+
+        // 취소된 작업은 뒤늦게 끝난 단계가 상태를 되돌리지 못하도록 CANCELLED를 유지 (결과/소요 시간은 반영)
+        private void transition(JobStatus.State next, String nextMessage) {
+            if (state == JobStatus.State.CANCELLED && next != JobStatus.State.CANCELLED) return;
+            if (state != next || !Objects.equals(message, nextMessage)) stateVersion = pending();
+            state = next;
+            message = nextMessage;
+        }
+
+        // 이번 변경이 반영될 version (changed() 호출 전에 사용)
+        private long pending() {
+            return version + 1;
+        }
+
+        private boolean isActive() {
+            return state == JobStatus.State.PENDING || state == JobStatus.State.PROCESSING;
+        }
+
+        private void failInProgressSteps() {
+            for (int i = 0; i < progressSteps.size(); i++) {
+                ProgressStep step = progressSteps.get(i);
+                if (step.status() != ProgressStep.Status.IN_PROGRESS) continue;
+                progressSteps.set(i, step.withStatus(ProgressStep.Status.FAILED));
+                stepVersions.put(step.id(), pending());
+            }
+            stepsCopy = null;
+        }
+
+        long estimatedBytes() {
+            long bytes = BASE_BYTES + (message == null ? 0 : message.length())
+                    + ENTRY_BYTES * (progressSteps.size() + stageDurations.size() + tokenUsage.size());
+            for (long artifact : artifactBytes.values()) bytes += artifact;
+            return bytes;
+        }
+
+        /**
+         * @param viewId 응답에 표시할 jobId (alias는 요청자의 jobId)
+         */
+        synchronized JobStatusDelta delta(String viewId, long since) {
+            // 클라이언트가 앞서 있으면(다른 작업의 버전 등) 전체를 보냄
+            long from = since > version ? -1 : since;
+            List<ProgressStep> steps = null;
+            for (ProgressStep step : progressSteps) {
+                if (stepVersions.getOrDefault(step.id(), baseVersion) <= from) continue;
+                if (steps == null) steps = new ArrayList<>();
+                steps.add(step);
+            }
+            long elapsed = state == JobStatus.State.PROCESSING
+                    ? System.currentTimeMillis() - startTime : totalElapsedMillis;
+            return new JobStatusDelta(
+                    viewId, from, version, state, message, lastUpdatedStage, elapsed,
+                    steps, changedEntries(stageDurations, durationVersions, from),
+                    changedEntries(tokenUsage, tokenVersions, from),
+                    analysisVersion > from ? analysisResults : null,
+                    processVersion > from ? processResponse : null,
+                    dataVersion > from ? dataEntitiesResponse : null,
+                    formVersion > from ? formResponse : null);
+        }
+
+        private <V> Map<String, V> changedEntries(Map<String, V> values, Map<String, Long> versions, long from) {
+            Map<String, V> changed = null;
+            for (Map.Entry<String, V> entry : values.entrySet()) {
+                if (versions.getOrDefault(entry.getKey(), baseVersion) <= from) continue;
+                if (changed == null) changed = new HashMap<>();
+                changed.put(entry.getKey(), entry.getValue());
+            }
+            return changed;
+        }
+
+        JobStatus snapshot() {
+            JobStatus current = snapshot;
+            if (current != null && current.version() == version) return current;
+            synchronized (this) {
+                if (snapshot == null || snapshot.version() != version) {
+                    if (durationsCopy == null) durationsCopy = Map.copyOf(stageDurations);
+                    if (stepsCopy == null) stepsCopy = List.copyOf(progressSteps);
+                    if (tokenUsageCopy == null) tokenUsageCopy = Map.copyOf(tokenUsage);
+                    snapshot = new JobStatus(
+                            jobId, state, message, lastUpdatedStage, version, startTime,
+                            durationsCopy, totalElapsedMillis, stepsCopy, analysisResults,
+                            processResponse, dataEntitiesResponse, formResponse, tokenUsageCopy);
+                }
+                return snapshot;
+            }
+        }
+    }
 
     public void save(JobStatus status) {
-        store.put(status.jobId(), status);
+        store.put(status.jobId(), new JobState(status));
+    }
+
+    // 상태 갱신은 작업 단위 락 안에서 원자적으로 적용 (병렬 단계가 서로의 갱신을 덮어쓰지 않도록)
+    private void update(String jobId, Consumer<JobState> change) {
+        mutate(jobId, job -> {
+            change.accept(job);
+            job.changed();
+            return true;
+        });
+    }
+
+    /**
+     * 작업 락 안에서 {@code change}를 실행합니다. 그 사이 작업이 디스크로 내려갔다면 재적재한 상태에 다시 실행합니다.
+     *
+     * @return 작업이 없으면 false, 아니면 change의 결과
+     */
+    private boolean mutate(String jobId, Predicate<JobState> change) {
+        while (true) {
+            JobState job = resident(jobId);
+            if (job == null) return false;
+            boolean changed;
+            synchronized (job) {
+                if (job.evicted) continue;
+                changed = change.test(job);
+            }
+            if (changed) notifyWatchers(jobId);
+            return changed;
+        }
+    }
+
+    /**
+     * [New] 작업(또는 alias)의 상태가 바뀔 때마다 {@code onChange}를 호출합니다. 작업이 삭제될 때도 호출됩니다.
+     * 콜백은 갱신한 스레드에서 락 밖에서 실행되므로 오래 걸리는 일은 다른 스레드로 넘겨야 합니다.
+     */
+    public Watch watch(String jobId, Runnable onChange) {
+        watchers.computeIfAbsent(jobId, id -> ConcurrentHashMap.newKeySet()).add(onChange);
+        return () -> watchers.computeIfPresent(jobId, (id, callbacks) -> {
+            callbacks.remove(onChange);
+            return callbacks.isEmpty() ? null : callbacks;
+        });
+    }
+
+    // 구독자가 없으면 비용 없음. 병합된 요청(alias)의 구독자도 함께 호출
+    private void notifyWatchers(String jobId) {
+        if (watchers.isEmpty()) return;
+        fire(jobId);
+        aliases.forEach((alias, target) -> {
+            if (target.equals(jobId)) fire(alias);
+        });
+    }
+
+    private void fire(String jobId) {
+        Set<Runnable> callbacks = watchers.get(jobId);
+        if (callbacks != null) callbacks.forEach(Runnable::run);
+    }
+
+    // 메모리에 없으면 디스크에서 재적재
+    private JobState resident(String jobId) {
+        JobState job = store.get(jobId);
+        if (job != null || !spilled.containsKey(jobId)) return job;
+        return store.computeIfAbsent(jobId, this::reload);
+    }
+
+    private JobState reload(String jobId) {
+        Spilled onDisk = spilled.remove(jobId);
+        if (onDisk == null) return null;
+        JobStatus status = spillStore.read(NAMESPACE, jobId, JobStatus.class);
+        spillStore.delete(NAMESPACE, jobId);
+        if (status == null) {
+            log.warn("Job [{}] could not be reloaded from disk.", jobId);
+            return null;
+        }
+        JobState job = new JobState(status);
+        job.artifactBytes.putAll(onDisk.artifactBytes());
+        return job;
     }
 
     public JobStatus findById(String jobId) {
-        JobStatus status = store.get(jobId);
-        if (status != null && status.state() == JobStatus.State.PROCESSING) {
-            long currentElapsed = System.currentTimeMillis() - status.startTime();
+        String target = aliases.get(jobId);
+        JobState job = resident(target != null ? target : jobId);
+        if (job == null) return null;
+        job.lastAccess = System.currentTimeMillis();
+        JobStatus status = job.snapshot();
+        if (target != null || status.state() == JobStatus.State.PROCESSING) {
+            long currentElapsed = status.state() == JobStatus.State.PROCESSING
+                    ? System.currentTimeMillis() - status.startTime() : status.totalElapsedMillis();
+            // alias는 요청자의 jobId로 보여줌
             return new JobStatus(
-                    status.jobId(), status.state(), status.message(), status.lastUpdatedStage(),
+                    jobId, status.state(), status.message(), status.lastUpdatedStage(),
                     status.version(), status.startTime(), status.stageDurations(), currentElapsed,
                     status.progressSteps(), status.analysisResults(), // 결과 추가
-                    status.processResponse(), status.dataEntitiesResponse(), status.formResponse()
+                    status.processResponse(), status.dataEntitiesResponse(), status.formResponse(),
+                    status.tokenUsage()
             );
         }
         return status;
     }
 
+    /**
+     * [New] 버전 {@code since} 이후 바뀐 항목만 반환합니다 (변경된 단계, 상태/메시지, 그 이후 저장된 결과물).
+     * 큰 결과물(프로세스/데이터/폼)은 바뀌지 않았으면 빠지므로 폴링 응답이 작게 유지됩니다.
+     *
+     * @return 작업이 없으면 null
+     */
+    public JobStatusDelta findChangesSince(String jobId, long since) {
+        String target = aliases.get(jobId);
+        JobState job = resident(target != null ? target : jobId);
+        if (job == null) return null;
+        job.lastAccess = System.currentTimeMillis();
+        return job.delta(jobId, since);
+    }
+
+    /**
+     * [Optimization] 스냅샷을 만들지 않고 현재 버전만 읽습니다 (alias는 대상 작업의 버전).
+     *
+     * @return 작업이 없으면 -1
+     */
+    public long version(String jobId) {
+        String target = aliases.get(jobId);
+        String id = target != null ? target : jobId;
+        JobState job = store.get(id);
+        if (job != null) return job.version;
+        Spilled onDisk = spilled.get(id);
+        return onDisk == null ? -1 : onDisk.version();
+    }
+
     public void initJob(String jobId) {
         save(JobStatus.init(jobId));
     }
 
+    public void remove(String jobId) {
+        JobState job = store.remove(jobId);
+        if (job != null) {
+            synchronized (job) {
+                job.evicted = true;
+            }
+        }
+        if (spilled.remove(jobId) != null) spillStore.delete(NAMESPACE, jobId);
+        notifyWatchers(jobId);
+        aliases.remove(jobId);
+        aliases.values().removeIf(jobId::equals);
+    }
+
+    /**
+     * [Optimization] 동일한 요청을 이미 실행 중인 작업에 연결합니다. 조회는 대상 작업의 상태를 반환합니다.
+     */
+    public void alias(String aliasId, String targetJobId) {
+        aliases.put(aliasId, targetJobId);
+    }
+
+    /**
+     * [Optimization] 진행 중인 작업에만 alias를 연결합니다. 종료 처리({@link #resolveAliases})와 같은 락을 사용하므로
+     * 완료된 작업에 뒤늦게 연결되는 alias가 생기지 않습니다.
+     *
+     * @return 대상 작업이 메모리에 없거나 이미 종료된 경우 false
+     */
+    public boolean aliasIfActive(String aliasId, String targetJobId) {
+        JobState target = store.get(targetJobId);
+        if (target == null) return false;
+        synchronized (target) {
+            if (target.evicted || !target.isActive()) return false;
+            aliases.put(aliasId, targetJobId);
+            return true;
+        }
+    }
+
+    /**
+     * [Optimization] 완료(COMPLETED)된 작업의 alias를 각 요청자의 jobId로 된 독립 기록으로 바꾸고 대상 작업은 삭제합니다.
+     * 결과물은 공유되므로 요청자가 하나뿐인 경우 추가 메모리가 들지 않고, alias 항목이 TTL까지 남지 않습니다.
+     * 실패/취소된 작업은 재개(체크포인트는 대상 작업 기준)를 위해 alias를 유지합니다.
+     */
+    public void resolveAliases(String jobId) {
+        JobState job = store.get(jobId);
+        if (job == null) return;
+        List<String> resolved = new ArrayList<>();
+        synchronized (job) {
+            if (job.evicted || job.state != JobStatus.State.COMPLETED) return;
+            JobStatus base = job.snapshot();
+            aliases.forEach((alias, target) -> {
+                if (!target.equals(jobId)) return;
+                // 기록을 먼저 저장한 뒤 alias를 제거하므로 조회가 비는 순간이 없음
+                JobState record = new JobState(alias, base);
+                record.artifactBytes.putAll(job.artifactBytes);
+                store.put(alias, record);
+                if (aliases.remove(alias, jobId)) resolved.add(alias);
+            });
+        }
+        if (resolved.isEmpty()) return;
+        remove(jobId);
+        resolved.forEach(this::fire);
+    }
+
+    /**
+     * @return alias가 가리키는 작업의 jobId, alias가 아니면 null
+     */
+    public String aliasTarget(String jobId) {
+        return aliases.get(jobId);
+    }
+
+    public int aliasCount(String targetJobId) {
+        return (int) aliases.values().stream().filter(targetJobId::equals).count();
+    }
+
+    /**
+     * alias를 대상 작업에서 분리하고, 그 시점의 상태를 CANCELLED로 고정한 독립 기록으로 남깁니다.
+     *
+     * @return alias가 아니거나 대상 작업이 이미 종료된 경우 false
+     */
+    public boolean detachAlias(String aliasId, String message) {
+        String target = aliases.get(aliasId);
+        JobState current = target == null ? null : store.get(target);
+        if (current == null) return false;
+        JobStatus base;
+        Map<String, Long> artifactBytes;
+        synchronized (current) {
+            if (!current.isActive() || !aliases.remove(aliasId, target)) return false;
+            base = current.snapshot();
+            artifactBytes = new HashMap<>(current.artifactBytes);
+        }
+        // 분리된 기록은 요청자의 jobId로 저장되며 대상 작업과 상태를 공유하지 않음
+        JobState record = new JobState(aliasId, base);
+        synchronized (record) {
+            record.artifactBytes.putAll(artifactBytes);
+            record.transition(JobStatus.State.CANCELLED, message);
+            record.failInProgressSteps();
+            record.changed();
+        }
+        store.put(aliasId, record);
+        fire(aliasId);
+        return true;
+    }
+
     public void updateState(String jobId, JobStatus.State state, String message) {
-        JobStatus current = store.get(jobId);
-        if (current != null) {
-            long elapsed = System.currentTimeMillis() - current.startTime();
-            save(new JobStatus(
-                    jobId, state, message,
-                    current.lastUpdatedStage(),
-                    current.version() + 1,
-                    current.startTime(),
-                    current.stageDurations(),
-                    elapsed,
-                    current.progressSteps(),
-                    current.analysisResults(),
-                    current.processResponse(), current.dataEntitiesResponse(), current.formResponse()
-            ));
+        update(jobId, job -> job.transition(state, message));
+    }
+
+    /**
+     * [New] 진행 중인 작업을 CANCELLED로 종료합니다. 진행 중이던 단계는 FAILED로 표시됩니다.
+     *
+     * @return 작업이 없거나 이미 종료된 경우 false
+     */
+    public boolean markCancelled(String jobId, String message) {
+        return mutate(jobId, job -> {
+            if (!job.isActive()) return false;
+            job.transition(JobStatus.State.CANCELLED, message);
+            job.failInProgressSteps();
+            job.changed();
+            return true;
+        });
+    }
+
+    /**
+     * [New] 실패/취소된 작업을 재개를 위해 PENDING으로 되돌립니다. (CANCELLED 고정 규칙을 의도적으로 우회)
+     *
+     * @return 작업이 없거나 FAILED/CANCELLED가 아닌 경우 false
+     */
+    public boolean reopen(String jobId, String message) {
+        return mutate(jobId, job -> {
+            if (job.state != JobStatus.State.FAILED && job.state != JobStatus.State.CANCELLED) return false;
+            job.state = JobStatus.State.PENDING;
+            job.message = message;
+            job.stateVersion = job.pending();
+            job.changed();
+            return true;
+        });
+    }
+
+    public boolean isCancelled(String jobId) {
+        JobState job = store.get(jobId);
+        if (job == null) {
+            Spilled onDisk = spilled.get(jobId);
+            return onDisk != null && onDisk.state() == JobStatus.State.CANCELLED;
+        }
+        synchronized (job) {
+            return job.state == JobStatus.State.CANCELLED;
         }
     }
 
     public void upsertProgressStep(String jobId, String stepId, String label, ProgressStep.Status status) {
-        JobStatus current = store.get(jobId);
-        if (current != null) {
-            List<ProgressStep> steps = new ArrayList<>(current.progressSteps());
+        update(jobId, job -> {
+            List<ProgressStep> steps = job.progressSteps;
             boolean found = false;
             for (int i = 0; i < steps.size(); i++) {
                 if (steps.get(i).id().equals(stepId)) {
@@ -70,39 +537,49 @@ public class JobRepository {
                 }
             }
             if (!found) steps.add(new ProgressStep(stepId, label, status));
-
-            save(new JobStatus(
-                    jobId, current.state(), current.message(),
-                    current.lastUpdatedStage(),
-                    current.version() + 1,
-                    current.startTime(),
-                    current.stageDurations(),
-                    System.currentTimeMillis() - current.startTime(),
-                    steps,
-                    current.analysisResults(),
-                    current.processResponse(), current.dataEntitiesResponse(), current.formResponse()
-            ));
-        }
+            job.stepVersions.put(stepId, job.pending());
+            job.stepsCopy = null;
+        });
     }
 
     /**
      * [New] 분석 결과(Audit Results)를 작업 상태에 저장합니다.
      */
     public void saveAnalysisResults(String jobId, List<AnalysisResult> results) {
-        JobStatus current = store.get(jobId);
-        if (current != null) {
-            save(new JobStatus(
-                    jobId, current.state(), current.message(),
-                    current.lastUpdatedStage(),
-                    current.version() + 1,
-                    current.startTime(),
-                    current.stageDurations(),
-                    System.currentTimeMillis() - current.startTime(),
-                    current.progressSteps(),
-                    results, // 분석 결과 반영
-                    current.processResponse(), current.dataEntitiesResponse(), current.formResponse()
-            ));
-        }
+        long bytes = results == null ? 0 : spillStore.sizeOf(results);
+        update(jobId, job -> {
+            job.analysisResults = results; // 분석 결과 반영
+            job.artifactBytes.put("analysis", bytes);
+            job.analysisVersion = job.pending();
+        });
+    }
+
+    /**
+     * [Streaming] 생성 중인 프로세스 맵(부분 결과)을 반영합니다. 단계 소요 시간은 기록하지 않습니다.
+     */
+    public void savePartialProcess(String jobId, ProcessResponse partialProcess) {
+        update(jobId, job -> {
+            job.transition(JobStatus.State.PROCESSING, job.message);
+            job.lastUpdatedStage = "PROCESS_PARTIAL";
+            job.processResponse = partialProcess;
+            job.processVersion = job.pending();
+        });
+    }
+
+    public void recordStageDuration(String jobId, String stageName, long durationMillis) {
+        update(jobId, job -> putDuration(job, stageName, durationMillis));
+    }
+
+    /**
+     * [New] 단계별 토큰 사용량을 누적합니다 (같은 단계의 재시도/복구 호출 포함).
+     */
+    public void recordTokenUsage(String jobId, String stageName, long promptTokens, long completionTokens) {
+        update(jobId, job -> {
+            job.tokenUsage.merge(stageName, new StageTokenUsage(promptTokens, completionTokens),
+                    (prev, added) -> prev.plus(added.promptTokens(), added.completionTokens()));
+            job.tokenVersions.put(stageName, job.pending());
+            job.tokenUsageCopy = null;
+        });
     }
 
     public void saveArtifact(String jobId, String type, ProcessResponse processResponse, long durationMillis) {
@@ -120,26 +597,117 @@ public class JobRepository {
     private void updateArtifactWithDuration(String jobId, String stageName,
                                             ProcessResponse proc, DataEntitiesResponse data, FormResponse form,
                                             long durationMillis) {
-        JobStatus current = store.get(jobId);
-        if (current != null) {
-            Map<String, Long> newDurations = new HashMap<>(current.stageDurations());
-            newDurations.put(stageName, durationMillis);
-            long elapsed = System.currentTimeMillis() - current.startTime();
-            ProcessResponse p = proc != null ? proc : current.processResponse();
-            DataEntitiesResponse d = data != null ? data : current.dataEntitiesResponse();
-            FormResponse f = form != null ? form : current.formResponse();
-
-            save(new JobStatus(
-                    jobId, JobStatus.State.PROCESSING, current.message(),
-                    stageName,
-                    current.version() + 1,
-                    current.startTime(),
-                    newDurations,
-                    elapsed,
-                    current.progressSteps(),
-                    current.analysisResults(),
-                    p, d, f
-            ));
-        }
-    }
-}
\ No newline at end of file
+        // 크기는 락 밖에서 결과물만 측정 (sweep 때마다 작업 전체를 직렬화하지 않도록)
+        String artifact = proc != null ? "process" : data != null ? "data" : "form";
+        long bytes = spillStore.sizeOf(proc != null ? proc : data != null ? data : form);
+        update(jobId, job -> {
+            job.artifactBytes.put(artifact, bytes);
+            putDuration(job, stageName, durationMillis);
+            job.transition(JobStatus.State.PROCESSING, job.message);
+            job.lastUpdatedStage = stageName;
+            if (proc != null) {
+                job.processResponse = proc;
+                job.processVersion = job.pending();
+            }
+            if (data != null) {
+                job.dataEntitiesResponse = data;
+                job.dataVersion = job.pending();
+            }
+            if (form != null) {
+                job.formResponse = form;
+                job.formVersion = job.pending();
+            }
+        });
+    }
+
+    private static void putDuration(JobState job, String stageName, long durationMillis) {
+        job.stageDurations.put(stageName, durationMillis);
+        job.durationVersions.put(stageName, job.pending());
+        job.durationsCopy = null;
+    }
+
+    /**
+     * [Optimization] 보존 정책 적용: TTL이 지난 종료 작업 삭제, 유휴/초과분 종료 작업을 디스크로 내려보냄.
+     */
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        long ttlMillis = ttl == null || ttl.isZero() || ttl.isNegative() ? Long.MAX_VALUE : ttl.toMillis();
+        long idleMillis = spillIdle == null || spillIdle.isNegative() ? Long.MAX_VALUE : spillIdle.toMillis();
+
+        spilled.forEach((jobId, onDisk) -> {
+            if (now - onDisk.updatedAt() > ttlMillis) evict(jobId, "ttl");
+        });
+
+        long total = 0;
+        List<Map.Entry<String, JobState>> candidates = new ArrayList<>();
+        for (Map.Entry<String, JobState> entry : store.entrySet()) {
+            JobState job = entry.getValue();
+            boolean terminal;
+            long updatedAt;
+            synchronized (job) {
+                terminal = !job.isActive();
+                updatedAt = job.updatedAt;
+            }
+            if (terminal && now - updatedAt > ttlMillis) {
+                evict(entry.getKey(), "ttl");
+                continue;
+            }
+            total += sizeOf(job);
+            if (terminal) candidates.add(entry);
+        }
+
+        // 오래 조회되지 않은 작업부터
+        candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        long limit = maxResidentBytes == null ? Long.MAX_VALUE : maxResidentBytes.toBytes();
+        for (Map.Entry<String, JobState> entry : candidates) {
+            boolean idle = now - entry.getValue().lastAccess > idleMillis;
+            if (!idle && total <= limit) break;
+            long freed = spill(entry.getKey(), entry.getValue(), idle ? "idle" : "size");
+            total -= freed;
+        }
+        residentBytes = total;
+    }
+
+    private long sizeOf(JobState job) {
+        synchronized (job) {
+            return job.estimatedBytes();
+        }
+    }
+
+    /**
+     * @return 해제된 바이트 수 (작업이 그 사이 다시 진행 중이 되었으면 0)
+     */
+    private long spill(String jobId, JobState job, String reason) {
+        JobStatus snapshot;
+        synchronized (job) {
+            if (job.evicted || job.isActive()) return 0;
+            snapshot = job.snapshot();
+        }
+        // 압축/디스크 쓰기는 락 밖에서 (그동안 상태 조회/갱신이 막히지 않도록)
+        boolean written = spillStore.write(NAMESPACE, jobId, snapshot);
+        synchronized (job) {
+            if (job.evicted || job.version != snapshot.version()) {
+                // 쓰는 동안 삭제/갱신(재개 등)됨: 디스크 사본은 버리고 메모리 상태를 유지
+                if (written) spillStore.delete(NAMESPACE, jobId);
+                return 0;
+            }
+            if (!written) {
+                // 디스크 계층이 없으면 크기 초과분만 버림 (유휴 작업은 메모리에 유지)
+                if ("idle".equals(reason)) return 0;
+                meterRegistry.counter("copilot.store.evictions", "store", NAMESPACE, "reason", reason).increment();
+            } else {
+                spilled.put(jobId, new Spilled(snapshot.state(), snapshot.version(), job.updatedAt,
+                        Map.copyOf(job.artifactBytes)));
+            }
+            job.evicted = true;
+            store.remove(jobId, job);
+            if (!spilled.containsKey(jobId)) aliases.values().removeIf(jobId::equals);
+            return job.estimatedBytes();
+        }
+    }
+
+    private void evict(String jobId, String reason) {
+        remove(jobId);
+        meterRegistry.counter("copilot.store.evictions", "store", NAMESPACE, "reason", reason).increment();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.dto.JobStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * [New] Server-Sent Events stream of a job's status (replaces tight polling of /status/{jobId}).
+ * <p>
+ * An event ({@code event: status}, {@code id: <version>}, data = {@link JobStatus}) is pushed only when the job's
+ * version changes. Bursts of updates collapse into one event carrying the latest version. The stream completes after
+ * the event with a terminal state (COMPLETED / FAILED / CANCELLED); clients should close their EventSource on it.
+ * A reconnecting client sends Last-Event-ID and only receives an event if the job has moved past that version.
+ * Comment heartbeats every {@code copilot.status.stream.heartbeat} keep proxies from closing idle connections.
+ */
+@Slf4j
+@Service
+public class JobStatusStreamService implements DisposableBean {
+
+    private final JobRepository jobRepository;
+    private final AsyncTaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMillis;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeats;
+
+    public JobStatusStreamService(JobRepository jobRepository,
+                                  @Qualifier("statusStreamExecutor") AsyncTaskExecutor executor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${copilot.status.stream.heartbeat:PT15S}") Duration heartbeat,
+                                  @Value("${copilot.status.stream.timeout:PT30M}") Duration timeout) {
+        this.jobRepository = jobRepository;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "status-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = heartbeat.toMillis();
+        heartbeats.scheduleAtFixedRate(() -> connections.forEach(Connection::heartbeat), millis, millis, TimeUnit.MILLISECONDS);
+        meterRegistry.gauge("copilot.status.stream.connections", connections, Set::size);
+    }
+
+    /**
+     * @param lastEventId version the client already has (Last-Event-ID), -1 for a new stream
+     */
+    public SseEmitter open(String jobId, long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(jobId, emitter, lastEventId);
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::close);
+        emitter.onError(e -> connection.close());
+        connections.add(connection);
+        connection.watch = jobRepository.watch(jobId, connection::schedule);
+        if (connection.closed) connection.watch.close();
+        connection.schedule();
+        return emitter;
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.shutdownNow();
+        connections.forEach(c -> c.emitter.complete());
+    }
+
+    private final class Connection {
+        final String jobId;
+        final SseEmitter emitter;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile JobRepository.Watch watch;
+        volatile boolean closed;
+        volatile boolean heartbeatDue;
+        // guarded by this
+        long lastSent;
+
+        Connection(String jobId, SseEmitter emitter, long lastEventId) {
+            this.jobId = jobId;
+            this.emitter = emitter;
+            this.lastSent = lastEventId;
+        }
+
+        /**
+         * Called on every status change: at most one flush is queued per connection.
+         * A rejected flush is retried by the next heartbeat.
+         */
+        void schedule() {
+            if (closed || !scheduled.compareAndSet(false, true)) return;
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        private void flush() {
+            scheduled.set(false);
+            synchronized (this) {
+                if (closed) return;
+                try {
+                    JobStatus status = jobRepository.findById(jobId);
+                    if (status == null) {
+                        // 작업이 삭제/만료됨
+                        emitter.complete();
+                        close();
+                        return;
+                    }
+                    if (status.version() > lastSent) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(status.version()))
+                                .name("status")
+                                .data(status, MediaType.APPLICATION_JSON));
+                        lastSent = status.version();
+                        heartbeatDue = false;
+                        meterRegistry.counter("copilot.status.stream.events").increment();
+                    } else if (heartbeatDue) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                        heartbeatDue = false;
+                    }
+                    if (isTerminal(status.state())) {
+                        emitter.complete();
+                        close();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // 클라이언트 연결 종료
+                    log.debug("Status stream of job [{}] closed: {}", jobId, e.getMessage());
+                    close();
+                }
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            connections.remove(this);
+            JobRepository.Watch current = watch;
+            if (current != null) current.close();
+        }
+    }
+
+    private static boolean isTerminal(JobStatus.State state) {
+        return state == JobStatus.State.COMPLETED || state == JobStatus.State.FAILED || state == JobStatus.State.CANCELLED;
+    }
+}
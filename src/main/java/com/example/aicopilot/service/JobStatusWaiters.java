@@ -0,0 +1,81 @@
+package com.example.aicopilot.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * [New] Long-poll support for the status endpoint ({@code ?waitForVersion=N}).
+ * <p>
+ * The request is parked (async servlet) until {@link JobRepository} reports a write that moves the job past
+ * version N, the job disappears, or the timeout elapses; then {@code respond} renders the answer. No thread is held
+ * while waiting. Beyond {@code copilot.status.long-poll.max-waiters} parked requests, requests are answered at once.
+ */
+@Slf4j
+@Component
+public class JobStatusWaiters {
+
+    private final JobRepository jobRepository;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger parked = new AtomicInteger();
+
+    @Value("${copilot.status.long-poll.max-timeout:PT60S}")
+    private Duration maxTimeout;
+
+    @Value("${copilot.status.long-poll.max-waiters:1000}")
+    private int maxWaiters;
+
+    public JobStatusWaiters(JobRepository jobRepository, MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("copilot.status.long-poll.waiters", parked);
+    }
+
+    /**
+     * @param timeout requested wait, capped at copilot.status.long-poll.max-timeout
+     */
+    public <T> DeferredResult<T> await(String jobId, long version, Duration timeout, Supplier<T> respond) {
+        Duration wait = timeout == null || timeout.compareTo(maxTimeout) > 0 ? maxTimeout : timeout;
+        DeferredResult<T> result = new DeferredResult<>(Math.max(0, wait.toMillis()));
+        if (movedPast(jobId, version) || wait.isZero() || wait.isNegative() || parked.get() >= maxWaiters) {
+            result.setResult(respond.get());
+            return result;
+        }
+
+        parked.incrementAndGet();
+        AtomicBoolean answered = new AtomicBoolean();
+        Runnable answer = () -> {
+            if (answered.compareAndSet(false, true)) result.setResult(respond.get());
+        };
+        JobRepository.Watch watch = jobRepository.watch(jobId, () -> {
+            if (movedPast(jobId, version) && !answered.get()) {
+                meterRegistry.counter("copilot.status.long-poll", "outcome", "changed").increment();
+                answer.run();
+            }
+        });
+        result.onTimeout(() -> {
+            meterRegistry.counter("copilot.status.long-poll", "outcome", "timeout").increment();
+            answer.run();
+        });
+        result.onCompletion(() -> {
+            watch.close();
+            parked.decrementAndGet();
+        });
+        result.onError(e -> log.debug("Long-poll of job [{}] failed: {}", jobId, e.getMessage()));
+        // 구독 전에 바뀌었을 수 있으므로 다시 확인 (lost wake-up 방지)
+        if (movedPast(jobId, version)) answer.run();
+        return result;
+    }
+
+    private boolean movedPast(String jobId, long version) {
+        long current = jobRepository.version(jobId);
+        return current < 0 || current > version;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.dto.definition.ProcessDefinition;
+import com.example.aicopilot.dto.definition.ProcessStep;
+import com.example.aicopilot.dto.process.Activity;
+import com.example.aicopilot.dto.process.NodeType;
+import com.example.aicopilot.dto.process.ProcessResponse;
+import com.example.aicopilot.dto.process.Swimlane;
+import com.example.aicopilot.dto.process.config.NodeConfiguration;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * [Optimization] Rule-based ProcessDefinition -> ProcessResponse compiler (Mode B).
+ * Follows the same ID / lane / gateway conventions as {@link com.example.aicopilot.agent.ProcessArchitect}
+ * (a DECISION step becomes a Review user_task followed by an exclusive_gateway; rejection loops back to the first step),
+ * so the result is interchangeable with the LLM transformation but produced in milliseconds.
+ */
+@Component
+public class ProcessMapCompiler {
+
+    private static final String END_NODE = "node_end";
+    private static final Pattern SYSTEM_ROLE = Pattern.compile("(?i).*\\b(system|automated|automation|bot|service|api|erp)\\b.*");
+    private static final Pattern NOTIFICATION = Pattern.compile("(?i).*\\b(notify|notification|email|e-mail|send|alert)\\b.*");
+
+    public ProcessResponse compile(ProcessDefinition definition) {
+        List<ProcessStep> steps = definition.steps() == null ? List.of() : definition.steps();
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("Process definition has no steps to transform.");
+        }
+
+        // 1. Swimlanes: one per role, in order of first appearance
+        Map<String, String> laneIdByRole = new LinkedHashMap<>();
+        Map<String, String> laneNameById = new LinkedHashMap<>();
+        for (ProcessStep step : steps) {
+            String role = roleOf(step);
+            laneIdByRole.computeIfAbsent(role, r -> {
+                String laneId = uniqueId("lane_" + snakeCase(r), laneNameById.keySet());
+                laneNameById.put(laneId, r);
+                return laneId;
+            });
+        }
+        List<String> laneIds = new ArrayList<>(laneNameById.keySet());
+        List<Swimlane> swimlanes = new ArrayList<>();
+        for (int i = 0; i < laneIds.size(); i++) {
+            String next = i + 1 < laneIds.size() ? laneIds.get(i + 1) : null;
+            swimlanes.add(new Swimlane(laneIds.get(i), laneNameById.get(laneIds.get(i)), next));
+        }
+
+        // 2. Node IDs (namespace pattern: node_{stepId}_{suffix}); a DECISION step gets _review + _gateway
+        Set<String> usedIds = new HashSet<>();
+        List<String> nodeIds = new ArrayList<>();
+        List<String> gatewayIds = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i++) {
+            ProcessStep step = steps.get(i);
+            String stepKey = step.stepId() == null || step.stepId().isBlank() ? String.valueOf(i + 1) : snakeCase(step.stepId());
+            String id = uniqueId("node_" + stepKey + "_" + suffixOf(step), usedIds);
+            usedIds.add(id);
+            nodeIds.add(id);
+            String gatewayId = null;
+            if (isDecision(step)) {
+                gatewayId = uniqueId("node_" + stepKey + "_gateway", usedIds);
+                usedIds.add(gatewayId);
+            }
+            gatewayIds.add(gatewayId);
+        }
+
+        // 3. Activities with sequence flow
+        List<Activity> activities = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i++) {
+            ProcessStep step = steps.get(i);
+            String id = nodeIds.get(i);
+            String laneId = laneIdByRole.get(roleOf(step));
+            String next = i + 1 < steps.size() ? nodeIds.get(i + 1) : END_NODE;
+            String label = labelOf(step, i);
+
+            if (isDecision(step)) {
+                // Review task by the deciding role, then the gateway (same decomposition as ProcessArchitect)
+                String gatewayId = gatewayIds.get(i);
+                NodeConfiguration reviewConfig = new NodeConfiguration("USER_TASK_CONFIG", roleOf(step), null, false, null,
+                        null, null, null, null, null, null);
+                activities.add(new Activity(id, NodeType.USER_TASK, label, laneId, step.description(),
+                        reviewConfig, new HashMap<>(), null, gatewayId, step.sourceRef()));
+
+                // Anti-linear rule: rejection loops back to the initiator's step for resubmission
+                String rejectTarget = i == 0 ? END_NODE : nodeIds.get(0);
+                NodeConfiguration config = new NodeConfiguration("GATEWAY_CONFIG", null, null, null, null,
+                        null, null, null, null, null, List.of(
+                        new NodeConfiguration.BranchCondition("Approve", next),
+                        new NodeConfiguration.BranchCondition("Reject", rejectTarget)));
+                activities.add(new Activity(gatewayId, NodeType.EXCLUSIVE_GATEWAY, label + "?", laneId, step.description(),
+                        config, new HashMap<>(), null, null, step.sourceRef()));
+            } else if (isServiceStep(step)) {
+                NodeConfiguration config = NOTIFICATION.matcher(text(step)).matches()
+                        ? new NodeConfiguration("EMAIL_CONFIG", null, null, null, null,
+                                null, label, null, null, null, null)
+                        : null;
+                activities.add(new Activity(id, NodeType.SERVICE_TASK, label, laneId, step.description(),
+                        config, new HashMap<>(), null, next, step.sourceRef()));
+            } else {
+                NodeConfiguration config = new NodeConfiguration("USER_TASK_CONFIG", roleOf(step), null, false, null,
+                        null, null, null, null, null, null);
+                activities.add(new Activity(id, NodeType.USER_TASK, label, laneId, step.description(),
+                        config, new HashMap<>(), null, next, step.sourceRef()));
+            }
+        }
+
+        String processName = definition.topic() == null || definition.topic().isBlank() ? "Untitled Process" : definition.topic();
+        String description = String.format("%s (%d steps, %d roles).", processName, steps.size(), swimlanes.size());
+        return new ProcessResponse(processName, description, swimlanes, activities);
+    }
+
+    private static boolean isDecision(ProcessStep step) {
+        return step.type() != null && step.type().trim().equalsIgnoreCase("DECISION");
+    }
+
+    private static boolean isServiceStep(ProcessStep step) {
+        return SYSTEM_ROLE.matcher(roleOf(step)).matches();
+    }
+
+    private static String suffixOf(ProcessStep step) {
+        if (isDecision(step)) return "review";
+        if (isServiceStep(step)) return NOTIFICATION.matcher(text(step)).matches() ? "notify" : "service";
+        return "task";
+    }
+
+    private static String roleOf(ProcessStep step) {
+        return step.role() == null || step.role().isBlank() ? "Participant" : step.role().trim();
+    }
+
+    // 이름이 없으면 stepId, 그것도 없으면 순번
+    private static String labelOf(ProcessStep step, int index) {
+        if (step.name() != null && !step.name().isBlank()) return step.name().trim();
+        if (step.stepId() != null && !step.stepId().isBlank()) return step.stepId().trim();
+        return "Step " + (index + 1);
+    }
+
+    private static String text(ProcessStep step) {
+        return (step.name() == null ? "" : step.name()) + " " + (step.description() == null ? "" : step.description());
+    }
+
+    static String snakeCase(String value) {
+        String snake = value.trim().toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", "_")
+                .replaceAll("^_+|_+$", "");
+        return snake.isEmpty() ? "x" : snake;
+    }
+
+    private static String uniqueId(String candidate, Set<String> taken) {
+        String id = candidate;
+        for (int n = 2; taken.contains(id); n++) id = candidate + "_" + n;
+        return id;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.agent.ProcessArchitect;
+import com.example.aicopilot.dto.process.Activity;
+import com.example.aicopilot.dto.process.NodeType;
+import com.example.aicopilot.dto.process.ProcessResponse;
+import com.example.aicopilot.dto.process.config.NodeConfiguration;
+import com.example.aicopilot.llm.TokenUsageScope;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static com.example.aicopilot.service.ProcessValidator.VIRTUAL_END_NODE;
+
+/**
+ * [Self-Correction] Bounded repair stage for generated process maps.
+ * 1. Local fixes (dangling links, mistyped IDs within the same step namespace)
+ * 2. Up to N rounds of ProcessArchitect.fixMap with only the errors and the affected nodes
+ * The job fails if the map is still invalid after both. Unknown targets are never silently rewired to node_end:
+ * that would produce a map that validates but does not match the process.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProcessRepairService {
+
+    private final ProcessArchitect processArchitect;
+    private final ProcessValidator processValidator;
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${copilot.map.repair.max-rounds:2}")
+    private int maxRounds;
+
+    public ProcessResponse repair(String jobId, String definitionJson, ProcessResponse process) {
+        List<ProcessValidator.Violation> violations = processValidator.findViolations(process);
+        if (violations.isEmpty()) return process;
+
+        long start = System.currentTimeMillis();
+        int rounds = 0;
+        String outcome = "local";
+        try {
+            log.info("Job [{}] map has {} violation(s). Starting repair.", jobId, violations.size());
+            ProcessResponse repaired = applyLocalFixes(process);
+            violations = processValidator.findViolations(repaired);
+
+            try (TokenUsageScope ignored = TokenUsageScope.open((prompt, completion) ->
+                    jobRepository.recordTokenUsage(jobId, "PROCESS_REPAIR", prompt, completion))) {
+                while (!violations.isEmpty() && rounds < maxRounds) {
+                    rounds++;
+                    outcome = "llm";
+                    repaired = fixWithArchitect(jobId, definitionJson, repaired, violations, rounds);
+                    violations = processValidator.findViolations(repaired);
+                }
+            }
+
+            if (!violations.isEmpty()) {
+                outcome = "failed";
+                throw new IllegalArgumentException(violations.get(0).message());
+            }
+            log.info("Job [{}] map repaired ({}, {} LLM round(s)).", jobId, outcome, rounds);
+            return repaired;
+        } finally {
+            jobRepository.recordStageDuration(jobId, "PROCESS_REPAIR", System.currentTimeMillis() - start);
+            meterRegistry.counter("copilot.map.repair", "outcome", outcome).increment();
+            meterRegistry.summary("copilot.map.repair.rounds", "outcome", outcome).record(rounds);
+        }
+    }
+
+    private ProcessResponse fixWithArchitect(String jobId, String definitionJson, ProcessResponse process,
+                                             List<ProcessValidator.Violation> violations, int round) {
+        Set<String> affectedIds = violations.stream()
+                .map(ProcessValidator.Violation::nodeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        List<Activity> affected = process.activities().stream().filter(a -> affectedIds.contains(a.id())).toList();
+        String errors = violations.stream().map(v -> "- " + v.message()).collect(Collectors.joining("\n"));
+        String nodeIds = process.activities().stream()
+                .map(a -> a.id() + ": " + a.label())
+                .collect(Collectors.joining("\n")) + "\n" + VIRTUAL_END_NODE + ": (virtual end)";
+
+        try {
+            ProcessResponse fix = processArchitect.fixMap(
+                    definitionJson == null ? "(not available)" : definitionJson,
+                    objectMapper.writeValueAsString(Map.of("activities", affected)),
+                    errors, nodeIds);
+            return mergeFixedNodes(process, fix);
+        } catch (Exception e) {
+            log.warn("Job [{}] fixMap round {} failed: {}", jobId, round, e.getMessage());
+            return process;
+        }
+    }
+
+    /**
+     * 수정된 노드만 ID 기준으로 교체합니다. 새 노드(예: 누락되었던 대상)는 뒤에 추가합니다.
+     */
+    private ProcessResponse mergeFixedNodes(ProcessResponse process, ProcessResponse fix) {
+        if (fix == null || fix.activities() == null || fix.activities().isEmpty()) return process;
+        Map<String, Activity> fixedById = new LinkedHashMap<>();
+        for (Activity a : fix.activities()) {
+            if (a.id() != null && !VIRTUAL_END_NODE.equals(a.id())) fixedById.put(a.id(), a);
+        }
+        List<Activity> merged = new ArrayList<>();
+        for (Activity a : process.activities()) {
+            Activity fixed = fixedById.remove(a.id());
+            merged.add(fixed != null ? withSourceRef(fixed, a) : a);
+        }
+        merged.addAll(fixedById.values());
+        return new ProcessResponse(process.processName(), process.description(), process.swimlanes(), merged);
+    }
+
+    private static Activity withSourceRef(Activity fixed, Activity original) {
+        if (fixed.sourceRef() != null || original.sourceRef() == null) return fixed;
+        return new Activity(fixed.id(), fixed.type(), fixed.label(), fixed.swimlaneId(), fixed.description(),
+                fixed.configuration(), fixed.inputMapping(), fixed.position(), fixed.nextActivityId(), original.sourceRef());
+    }
+
+    /**
+     * Local rules. Unknown references are resolved to a unique node in the same step namespace
+     * (node_{stepId}...); anything else is left for the LLM rounds.
+     */
+    private ProcessResponse applyLocalFixes(ProcessResponse process) {
+        Set<String> ids = process.activities().stream().map(Activity::id).collect(Collectors.toSet());
+        ids.add(VIRTUAL_END_NODE);
+        UnaryOperator<String> resolve = target -> {
+            if (target == null || ids.contains(target)) return target;
+            String match = namespaceMatch(target, ids);
+            return match != null ? match : target;
+        };
+
+        List<Activity> fixed = new ArrayList<>();
+        for (Activity a : process.activities()) {
+            NodeConfiguration config = a.configuration();
+            if (config != null && config.conditions() != null) {
+                List<NodeConfiguration.BranchCondition> conditions = config.conditions().stream()
+                        .map(c -> new NodeConfiguration.BranchCondition(c.expression(), resolve.apply(c.targetActivityId())))
+                        .toList();
+                config = new NodeConfiguration(config.configType(), config.participantRole(), config.formKey(),
+                        config.isApproval(), config.dueDuration(), config.templateId(), config.subject(),
+                        config.retryCount(), config.priority(), config.defaultNextActivityId(), conditions);
+            }
+
+            String next = resolve.apply(a.nextActivityId());
+            if (next == null && a.type() != NodeType.EXCLUSIVE_GATEWAY) {
+                next = VIRTUAL_END_NODE; // dangling task = terminal point
+            }
+            fixed.add(new Activity(a.id(), a.type(), a.label(), a.swimlaneId(), a.description(),
+                    config, a.inputMapping(), a.position(), next, a.sourceRef()));
+        }
+        return new ProcessResponse(process.processName(), process.description(), process.swimlanes(), fixed);
+    }
+
+    private static String namespaceMatch(String target, Set<String> ids) {
+        // node_3_form -> node_3_ : only accept an unambiguous candidate
+        String[] parts = target.split("_");
+        if (parts.length < 2 || !"node".equals(parts[0])) return null;
+        String prefix = parts[0] + "_" + parts[1];
+        List<String> candidates = ids.stream()
+                .filter(id -> id.equals(prefix) || id.startsWith(prefix + "_"))
+                .toList();
+        return candidates.size() == 1 ? candidates.get(0) : null;
+    }
+}
@@ -6,6 +6,8 @@ import com.example.aicopilot.dto.process.ProcessResponse;
 import com.example.aicopilot.dto.process.config.NodeConfiguration;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -15,11 +17,28 @@ import java.util.stream.Collectors;
 @Component
 public class ProcessValidator {
 
-    private static final String VIRTUAL_END_NODE = "node_end";
+    static final String VIRTUAL_END_NODE = "node_end";
+
+    /**
+     * A single structural problem; nodeId is null for process-level problems.
+     */
+    public record Violation(String nodeId, String message) {}
 
     public void validate(ProcessResponse process) {
+        List<Violation> violations = findViolations(process);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.get(0).message());
+        }
+    }
+
+    /**
+     * [New] validate()와 같은 규칙으로 모든 위반 사항을 수집합니다 (Self-Repair 입력용).
+     */
+    public List<Violation> findViolations(ProcessResponse process) {
+        List<Violation> violations = new ArrayList<>();
         if (process.activities() == null || process.activities().isEmpty()) {
-            throw new IllegalArgumentException("Process must have at least one activity.");
+            violations.add(new Violation(null, "Process must have at least one activity."));
+            return violations;
         }
 
         Set<String> validNodeIds = process.activities().stream()
@@ -29,40 +48,41 @@ public class ProcessValidator {
         validNodeIds.add(VIRTUAL_END_NODE);
 
         for (Activity activity : process.activities()) {
-            validateNextActivityId(activity, validNodeIds);
-            validateGatewayConditions(activity, validNodeIds);
+            validateNextActivityId(activity, validNodeIds, violations);
+            validateGatewayConditions(activity, validNodeIds, violations);
         }
+        return violations;
     }
 
-    private void validateNextActivityId(Activity activity, Set<String> validNodeIds) {
+    private void validateNextActivityId(Activity activity, Set<String> validNodeIds, List<Violation> violations) {
         String nextId = activity.nextActivityId();
 
         if (activity.type() != NodeType.EXCLUSIVE_GATEWAY && nextId == null) {
             // [Fixed] Error message converted to English
-            throw new IllegalArgumentException(String.format(
+            violations.add(new Violation(activity.id(), String.format(
                     "Flow Disconnect: Node ['%s'](Type: %s) has no nextActivityId defined. If it's a terminal point, specify 'node_end'.",
                     activity.id(), activity.type()
-            ));
+            )));
         }
 
         if (nextId != null && !validNodeIds.contains(nextId)) {
-            throw new IllegalArgumentException(String.format(
+            violations.add(new Violation(activity.id(), String.format(
                     "Structural Error: Node ['%s'] refers to non-existent node ['%s'] as nextActivityId.",
                     activity.id(), nextId
-            ));
+            )));
         }
     }
 
-    private void validateGatewayConditions(Activity activity, Set<String> validNodeIds) {
+    private void validateGatewayConditions(Activity activity, Set<String> validNodeIds, List<Violation> violations) {
         NodeConfiguration config = activity.configuration();
         if (config != null && config.conditions() != null) {
             for (NodeConfiguration.BranchCondition condition : config.conditions()) {
                 String targetId = condition.targetActivityId();
                 if (targetId != null && !validNodeIds.contains(targetId)) {
-                    throw new IllegalArgumentException(String.format(
+                    violations.add(new Violation(activity.id(), String.format(
                             "Structural Error: Branch condition in Node ['%s'] refers to non-existent node ['%s'] as targetActivityId.",
                             activity.id(), targetId
-                    ));
+                    )));
                 }
             }
         }
@@ -0,0 +1,185 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.llm.ResponseCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * [Optimization] Single-flight coalescing of identical concurrent requests.
+ * <p>
+ * Requests are keyed on a canonical SHA-256 of the body (object keys sorted, text compared verbatim, embedded JSON
+ * documents compared structurally with their string values untouched).
+ * <ul>
+ *     <li>Synchronous endpoints ({@link #execute}): callers arriving while an identical call is in flight wait for
+ *     that call and share its result (or its error).</li>
+ *     <li>Jobs ({@link #submitJob}): every caller gets its own job id, aliased in {@link JobRepository} to one shared
+ *     run. Cancelling an alias detaches it; the run is cancelled once no alias is left (see JobCancellationRegistry).
+ *     When the run completes, every alias becomes a record under its own job id and the run record is dropped.</li>
+ * </ul>
+ * Nothing is cached after completion; only requests that overlap in time are merged.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestCoalescer {
+
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    // Key: request key, Value: result of the in-flight call
+    private final Map<String, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+    // Key: request key, Value: id of the in-flight shared run
+    private final Map<String, String> runs = new ConcurrentHashMap<>();
+
+    @Value("${copilot.coalescing.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Runs the call, or joins an identical call that is already running.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, Object body, Callable<T> call) throws Exception {
+        if (!enabled) return call.call();
+
+        String key = key(scope, body);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = calls.putIfAbsent(key, mine);
+        if (leader != null) {
+            record(scope, "follower");
+            try {
+                return (T) leader.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+
+        record(scope, "leader");
+        try {
+            T result = call.call();
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            calls.remove(key, mine);
+        }
+    }
+
+    /**
+     * Returns the job id for the caller. The first caller starts a new run ({@code start} receives the run id);
+     * identical requests arriving while it is in flight are aliased to it.
+     * If {@code start} throws, the run and its aliases are removed and the exception propagates.
+     */
+    public String submitJob(String scope, Object body, Consumer<String> start) {
+        String jobId = UUID.randomUUID().toString();
+        if (!enabled) {
+            jobRepository.initJob(jobId);
+            start(jobId, start);
+            return jobId;
+        }
+
+        String key = key(scope, body);
+        String runId = UUID.randomUUID().toString();
+        jobRepository.initJob(runId);
+        while (true) {
+            String existing = runs.putIfAbsent(key, runId);
+            if (existing == null) break;
+            // joins only while the run is active, so a completing run cannot miss the alias (see release)
+            if (jobRepository.aliasIfActive(jobId, existing)) {
+                jobRepository.remove(runId);
+                record(scope, "follower");
+                log.info("Request [{}] joined in-flight job [{}] as [{}].", scope, existing, jobId);
+                return jobId;
+            }
+            // stale entry (run finished or was removed): take its place
+            if (runs.replace(key, existing, runId)) break;
+        }
+
+        jobRepository.alias(jobId, runId);
+        record(scope, "leader");
+        try {
+            start(runId, start);
+        } catch (RuntimeException e) {
+            runs.remove(key, runId);
+            throw e;
+        }
+        return jobId;
+    }
+
+    private void start(String runId, Consumer<String> start) {
+        try {
+            start.accept(runId);
+        } catch (RuntimeException e) {
+            jobRepository.remove(runId);
+            throw e;
+        }
+    }
+
+    /**
+     * Stops routing new requests to the run and, if it completed, hands each caller its own record. Called when the
+     * run finishes. A failed or cancelled run keeps its aliases so the callers can still resume it.
+     */
+    public void release(String runId) {
+        runs.values().remove(runId);
+        jobRepository.resolveAliases(runId);
+    }
+
+    String key(String scope, Object body) {
+        JsonNode canonical = canonicalize(objectMapper.valueToTree(body), true);
+        return ResponseCache.sha256(scope + '\u0000' + canonical);
+    }
+
+    // text is hashed verbatim, so prompts differing only in whitespace stay separate; text holding a JSON document
+    // (currentProcessJson) is compared as parsed JSON instead, its string values also kept verbatim
+    private JsonNode canonicalize(JsonNode node, boolean parseEmbedded) {
+        if (node.isTextual()) {
+            JsonNode embedded = parseEmbedded ? embeddedJson(node.textValue()) : null;
+            return embedded != null ? canonicalize(embedded, false) : node;
+        }
+        if (node.isObject()) {
+            ObjectNode sorted = new ObjectNode(JsonNodeFactory.instance, new TreeMap<>());
+            node.properties().forEach(field -> sorted.set(field.getKey(), canonicalize(field.getValue(), parseEmbedded)));
+            return sorted;
+        }
+        if (node.isArray()) {
+            ArrayNode array = JsonNodeFactory.instance.arrayNode();
+            node.forEach(element -> array.add(canonicalize(element, parseEmbedded)));
+            return array;
+        }
+        return node;
+    }
+
+    private JsonNode embeddedJson(String text) {
+        String trimmed = text.trim();
+        if (!(trimmed.startsWith("{") && trimmed.endsWith("}")) && !(trimmed.startsWith("[") && trimmed.endsWith("]"))) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(trimmed);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private void record(String scope, String role) {
+        meterRegistry.counter("copilot.coalescing", "scope", scope, "role", role).increment();
+    }
+}
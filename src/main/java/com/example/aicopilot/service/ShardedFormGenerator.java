@@ -0,0 +1,173 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.agent.FormUXDesigner;
+import com.example.aicopilot.dto.dataEntities.DataEntitiesResponse;
+import com.example.aicopilot.dto.dataEntities.DataEntity;
+import com.example.aicopilot.dto.form.FormDefinitions;
+import com.example.aicopilot.dto.form.FormResponse;
+import com.example.aicopilot.dto.process.Activity;
+import com.example.aicopilot.dto.process.NodeType;
+import com.example.aicopilot.dto.process.ProcessResponse;
+import com.example.aicopilot.llm.LlmPriority;
+import com.example.aicopilot.llm.TokenUsageScope;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * [Optimization] Sharded form generation: one FormUXDesigner call per USER_TASK.
+ * Every USER_TASK gets a shard: the entities captured at the task (by sourceNodeId) are editable, entities captured
+ * upstream (or not bound to a node) are carried over read-only, so approval/review tasks still display request data.
+ * Shards run in parallel under a concurrency cap, a failed shard is retried on its own, and the results are merged
+ * into one FormResponse. Shards run on their own bounded pool, so the stage waiting for them never queues behind
+ * its own pipeline stages, and an interrupted stage cancels them. Off by default.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShardedFormGenerator {
+
+    private final FormUXDesigner formUXDesigner;
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor formShardExecutor;
+    private final JobCancellationRegistry cancellation;
+
+    @Value("${copilot.form.sharding.enabled:false}")
+    private boolean enabled;
+
+    // 이 수 미만의 USER_TASK는 기존 단일 호출이 더 저렴함
+    @Value("${copilot.form.sharding.min-tasks:6}")
+    private int minTasks;
+
+    @Value("${copilot.form.sharding.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${copilot.form.sharding.max-attempts:2}")
+    private int maxAttempts;
+
+    private record Shard(Activity task, List<DataEntity> editable, List<DataEntity> readOnly) {}
+
+    public boolean appliesTo(ProcessResponse process) {
+        return enabled && userTasks(process).size() >= minTasks;
+    }
+
+    public FormResponse generate(String jobId, String userRequest, ProcessResponse process, DataEntitiesResponse data)
+            throws InterruptedException {
+        List<Shard> shards = slice(process, data);
+        log.info("Job [{}] generating {} form shard(s) (max {} in parallel).", jobId, shards.size(), maxConcurrency);
+
+        Semaphore slots = new Semaphore(maxConcurrency);
+        List<Future<FormResponse>> futures = new ArrayList<>();
+        try {
+            for (Shard shard : shards) {
+                slots.acquire();
+                try {
+                    futures.add(formShardExecutor.submit(() -> {
+                        try {
+                            return runShard(jobId, userRequest, shard);
+                        } finally {
+                            slots.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    // shard pool saturated: this shard runs on the caller's thread
+                    try {
+                        futures.add(CompletableFuture.completedFuture(runShard(jobId, userRequest, shard)));
+                    } finally {
+                        slots.release();
+                    }
+                }
+            }
+
+            List<FormDefinitions> merged = new ArrayList<>();
+            for (Future<FormResponse> future : futures) {
+                FormResponse part = future.get();
+                if (part != null && part.formDefinitions() != null) merged.addAll(part.formDefinitions());
+            }
+            return new FormResponse(merged);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause);
+        } finally {
+            // failure, timeout or cancellation (interrupt) of the stage: stop the shards still running
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private FormResponse runShard(String jobId, String userRequest, Shard shard) {
+        String taskId = shard.task().id();
+        try (JobCancellationRegistry.Binding ignored = cancellation.bind(jobId)) {
+            return runShardAttempts(jobId, userRequest, shard, taskId);
+        }
+    }
+
+    private FormResponse runShardAttempts(String jobId, String userRequest, Shard shard, String taskId) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.currentTimeMillis();
+            // 샤드는 executor 스레드에서 실행되므로 FORM 토큰 스코프를 직접 엽니다
+            try (TokenUsageScope ignored = TokenUsageScope.open((prompt, completion) ->
+                    jobRepository.recordTokenUsage(jobId, "FORM", prompt, completion))) {
+                String taskJson = objectMapper.writeValueAsString(shard.task());
+                String dataJson = objectMapper.writeValueAsString(
+                        Map.of("editable", shard.editable(), "readOnly", shard.readOnly()));
+                FormResponse form = LlmPriority.PIPELINE.call(() -> formUXDesigner.designTaskForm(userRequest, taskJson, dataJson));
+                jobRepository.recordStageDuration(jobId, "FORM_SHARD:" + taskId, System.currentTimeMillis() - start);
+                return form;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || cancellation.isCancelled(jobId) || Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Form shard [" + taskId + "] failed after " + attempt + " attempt(s): " + e.getMessage(), e);
+                }
+                log.warn("Job [{}] form shard [{}] failed (attempt {}): {}. Retrying.", jobId, taskId, attempt, e.getMessage());
+            }
+        }
+    }
+
+    private List<Shard> slice(ProcessResponse process, DataEntitiesResponse data) {
+        List<DataEntity> entities = data == null || data.entities() == null ? List.of() : data.entities();
+        List<Activity> activities = process == null || process.activities() == null ? List.of() : process.activities();
+        Set<String> nodeIds = new HashSet<>();
+        activities.forEach(a -> nodeIds.add(a.id()));
+
+        // activities는 흐름 순서로 정렬되어 있으므로, 앞선 노드가 캡처한 데이터가 upstream (read-only 표시 대상)
+        Set<String> upstream = new HashSet<>();
+        List<Shard> shards = new ArrayList<>();
+        for (Activity activity : activities) {
+            if (activity.type() == NodeType.USER_TASK && activity.id() != null) {
+                List<DataEntity> editable = new ArrayList<>();
+                List<DataEntity> readOnly = new ArrayList<>();
+                for (DataEntity entity : entities) {
+                    String source = entity.sourceNodeId();
+                    if (activity.id().equals(source)) editable.add(entity);
+                    else if (source == null || !nodeIds.contains(source) || upstream.contains(source)) readOnly.add(entity);
+                }
+                shards.add(new Shard(activity, editable, readOnly));
+            }
+            if (activity.id() != null) upstream.add(activity.id());
+        }
+        return shards;
+    }
+
+    private static List<Activity> userTasks(ProcessResponse process) {
+        if (process == null || process.activities() == null) return List.of();
+        return process.activities().stream()
+                .filter(a -> a.type() == NodeType.USER_TASK && a.id() != null)
+                .toList();
+    }
+}
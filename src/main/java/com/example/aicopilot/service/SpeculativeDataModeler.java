@@ -0,0 +1,157 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.agent.DataModeler;
+import com.example.aicopilot.dto.dataEntities.DataEntitiesResponse;
+import com.example.aicopilot.dto.dataEntities.DataEntity;
+import com.example.aicopilot.dto.definition.ProcessDefinition;
+import com.example.aicopilot.dto.definition.ProcessStep;
+import com.example.aicopilot.dto.process.Activity;
+import com.example.aicopilot.dto.process.NodeType;
+import com.example.aicopilot.dto.process.ProcessResponse;
+import com.example.aicopilot.llm.LlmPriority;
+import com.example.aicopilot.llm.TokenUsageScope;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [Optimization] Speculative data modeling from the outline (design flow, opt-in).
+ * <p>
+ * The data model is drafted from the {@link ProcessDefinition} while the map is still being drawn. Each step is
+ * presented as a provisional node {@code node_{stepId}}, the root of the namespace pattern the map uses for its ids
+ * ({@code node_{stepId}_{suffix}}). Once the map arrives the draft's sourceNodeIds are reconciled to the final
+ * activities of each step (the USER_TASK if there is one). If any entity cannot be placed, the draft is discarded
+ * and the data model is designed from the map as usual.
+ * <p>
+ * Reported: copilot.data.speculation {outcome=hit|miss|failed} (hit rate) and copilot.data.speculation.saved.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpeculativeDataModeler {
+
+    private static final String NODE_PREFIX = "node_";
+
+    private final DataModeler dataModeler;
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${copilot.data.speculative.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Result of the speculative call. {@code data} is null when the draft failed; the pipeline then reruns.
+     */
+    public record Draft(DataEntitiesResponse data, long millis) {}
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Draft draft(String jobId, String userRequest, ProcessDefinition definition) throws Exception {
+        long start = System.currentTimeMillis();
+        String provisionalJson = objectMapper.writeValueAsString(provisionalNodes(definition));
+        try (TokenUsageScope ignored = TokenUsageScope.open((prompt, completion) ->
+                jobRepository.recordTokenUsage(jobId, "DATA_SPECULATIVE", prompt, completion))) {
+            DataEntitiesResponse data = LlmPriority.PIPELINE.call(() -> dataModeler.designDataModel(userRequest, provisionalJson));
+            return new Draft(data, System.currentTimeMillis() - start);
+        } catch (CancellationException e) {
+            throw e;
+        } catch (Exception e) {
+            // 추측 실패는 작업 실패가 아님: 맵 기반 생성으로 대체
+            log.warn("Job [{}] speculative data model failed: {}", jobId, e.getMessage());
+            return new Draft(null, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Maps the draft onto the final map. Empty when the draft has to be discarded.
+     *
+     * @param processReadyAt epoch millis at which the map became available
+     * @param draftReadyAt   epoch millis at which the draft became available
+     */
+    public Optional<DataEntitiesResponse> reconcile(String jobId, Draft draft, ProcessResponse process,
+                                                    long processReadyAt, long draftReadyAt) {
+        if (draft.data() == null || draft.data().entities() == null || draft.data().entities().isEmpty()) {
+            record(jobId, "failed", 0);
+            return Optional.empty();
+        }
+        List<Activity> activities = process.activities() == null ? List.of() : process.activities();
+        Set<String> finalIds = new HashSet<>();
+        activities.forEach(a -> finalIds.add(a.id()));
+
+        List<DataEntity> reconciled = new ArrayList<>();
+        List<String> unplaced = new ArrayList<>();
+        for (DataEntity entity : draft.data().entities()) {
+            String nodeId = finalIds.contains(entity.sourceNodeId()) ? entity.sourceNodeId() : place(entity.sourceNodeId(), activities);
+            if (nodeId == null) {
+                unplaced.add(entity.alias());
+                continue;
+            }
+            reconciled.add(new DataEntity(entity.id(), entity.alias(), nodeId, entity.label(), entity.type(),
+                    entity.description(), entity.required(), entity.isPrimaryKey(), entity.maxLength(),
+                    entity.lookupData(), entity.pattern(), entity.requireTrue()));
+        }
+        if (!unplaced.isEmpty()) {
+            log.info("Job [{}] speculative data model discarded: no final node for {}.", jobId, unplaced);
+            record(jobId, "miss", 0);
+            return Optional.empty();
+        }
+
+        // without speculation modeling would have started when the map was ready
+        long saved = Math.max(0, processReadyAt + draft.millis() - Math.max(processReadyAt, draftReadyAt));
+        record(jobId, "hit", saved);
+        return Optional.of(new DataEntitiesResponse(reconciled, draft.data().groups()));
+    }
+
+    /**
+     * The step's final node: exact provisional id, else the first USER_TASK in its namespace, else its first node.
+     */
+    private static String place(String provisionalId, List<Activity> activities) {
+        if (provisionalId == null || provisionalId.isBlank()) return null;
+        String root = ProcessMapCompiler.snakeCase(provisionalId);
+        String prefix = root + "_";
+        Activity first = null;
+        for (Activity activity : activities) {
+            String id = ProcessMapCompiler.snakeCase(activity.id());
+            if (!id.equals(root) && !id.startsWith(prefix)) continue;
+            if (activity.type() == NodeType.USER_TASK) return activity.id();
+            if (first == null) first = activity;
+        }
+        return first == null ? null : first.id();
+    }
+
+    private static List<Map<String, String>> provisionalNodes(ProcessDefinition definition) {
+        List<Map<String, String>> nodes = new ArrayList<>();
+        List<ProcessStep> steps = definition.steps() == null ? List.of() : definition.steps();
+        for (int i = 0; i < steps.size(); i++) {
+            ProcessStep step = steps.get(i);
+            String stepKey = step.stepId() == null || step.stepId().isBlank()
+                    ? String.valueOf(i + 1) : ProcessMapCompiler.snakeCase(step.stepId());
+            Map<String, String> node = new LinkedHashMap<>();
+            node.put("id", NODE_PREFIX + stepKey);
+            node.put("label", step.name());
+            node.put("role", step.role());
+            node.put("type", "DECISION".equalsIgnoreCase(step.type()) ? "user_task (review + decision)" : "user_task or service_task");
+            node.put("description", step.description());
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private void record(String jobId, String outcome, long savedMillis) {
+        meterRegistry.counter("copilot.data.speculation", "outcome", outcome).increment();
+        if ("hit".equals(outcome)) {
+            meterRegistry.timer("copilot.data.speculation.saved").record(savedMillis, TimeUnit.MILLISECONDS);
+            jobRepository.recordStageDuration(jobId, "DATA_SPECULATION_SAVED", savedMillis);
+        }
+    }
+}
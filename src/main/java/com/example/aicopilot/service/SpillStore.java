@@ -0,0 +1,183 @@
+package com.example.aicopilot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * [Optimization] Compressed disk tier for {@link JobRepository} and {@link AssetRepository}.
+ * <p>
+ * Entries evicted from memory are written as gzip-compressed JSON, one file per entry under
+ * {@code <dir>/<process>/<namespace>/}, and read back when they are accessed again. Each process writes to its own
+ * subdirectory (pid + random suffix), so instances sharing a host and {@code dir} never touch each other's files.
+ * The index of spilled entries lives in the repositories: the subdirectory is deleted on shutdown, and subdirectories
+ * left behind by processes that did not shut down cleanly are deleted at startup once they have not been modified for
+ * {@code copilot.store.spill.orphan-after} (live processes refresh theirs on every store sweep).
+ * With {@code copilot.store.spill.dir} blank the tier is disabled and evicted entries are dropped.
+ * <p>
+ * Reported: copilot.store.spills {store}, copilot.store.spill.bytes {store}, copilot.store.reload {store}.
+ */
+@Slf4j
+@Component
+public class SpillStore implements DisposableBean {
+
+    private final Path dir;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public SpillStore(@Value("${copilot.store.spill.dir:}") String dir,
+                      @Value("${copilot.store.spill.orphan-after:P1D}") Duration orphanAfter,
+                      ObjectMapper objectMapper,
+                      MeterRegistry meterRegistry) {
+        Path root = dir.isBlank() ? null : Path.of(dir);
+        this.dir = root == null ? null
+                : root.resolve(ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8));
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        if (this.dir != null) {
+            try {
+                Files.createDirectories(this.dir);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot prepare spill directory: " + dir, e);
+            }
+            deleteOrphans(root, orphanAfter);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (dir != null) deleteTree(dir);
+    }
+
+    // live processes touch their directory on every store sweep (see StoreJanitor), so only abandoned ones are old
+    private void deleteOrphans(Path root, Duration orphanAfter) {
+        long cutoff = System.currentTimeMillis() - orphanAfter.toMillis();
+        try (Stream<Path> children = Files.list(root)) {
+            children.filter(child -> !child.equals(dir) && Files.isDirectory(child))
+                    .filter(child -> child.toFile().lastModified() < cutoff)
+                    .forEach(SpillStore::deleteTree);
+        } catch (IOException e) {
+            log.warn("Cannot scan spill directory {} for orphans: {}", root, e.getMessage());
+        }
+    }
+
+    /**
+     * Marks this process's directory as alive for other instances sharing the spill root.
+     */
+    public void touch() {
+        if (dir == null) return;
+        try {
+            Files.setLastModifiedTime(dir, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.warn("Cannot touch spill directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static void deleteTree(Path path) {
+        try (Stream<Path> tree = Files.walk(path)) {
+            tree.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Cannot delete spill directory {}: {}", path, e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    /**
+     * Size accounting: length of the entry's JSON form (nothing is buffered).
+     */
+    public long sizeOf(Object value) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try {
+            objectMapper.writeValue(counter, value);
+        } catch (IOException e) {
+            log.warn("Cannot measure {}: {}", value.getClass().getSimpleName(), e.getMessage());
+        }
+        return counter.count;
+    }
+
+    /**
+     * @return true if the entry is on disk
+     */
+    public boolean write(String namespace, String id, Object value) {
+        if (dir == null) return false;
+        Path file = file(namespace, id);
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                objectMapper.writeValue(out, value);
+            }
+            meterRegistry.counter("copilot.store.spills", "store", namespace).increment();
+            meterRegistry.summary("copilot.store.spill.bytes", "store", namespace).record(Files.size(file));
+            return true;
+        } catch (IOException e) {
+            log.warn("Failed to spill {} [{}]: {}", namespace, id, e.getMessage());
+            delete(namespace, id);
+            return false;
+        }
+    }
+
+    /**
+     * @return the entry, or null if it is not on disk or unreadable
+     */
+    public <T> T read(String namespace, String id, Class<T> type) {
+        if (dir == null) return null;
+        Path file = file(namespace, id);
+        long start = System.nanoTime();
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return objectMapper.readValue(in, type);
+        } catch (FileNotFoundException | java.nio.file.NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Discarding unreadable spilled {} [{}]: {}", namespace, id, e.getMessage());
+            return null;
+        } finally {
+            meterRegistry.timer("copilot.store.reload", "store", namespace)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void delete(String namespace, String id) {
+        if (dir == null) return;
+        try {
+            Files.deleteIfExists(file(namespace, id));
+        } catch (IOException e) {
+            log.warn("Failed to delete spilled {} [{}]: {}", namespace, id, e.getMessage());
+        }
+    }
+
+    private Path file(String namespace, String id) {
+        return dir.resolve(namespace).resolve(id + ".json.gz");
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.aicopilot.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [Optimization] Applies the retention policies of {@link JobRepository} and {@link AssetRepository}
+ * (TTL, idle spill, max resident bytes) every {@code copilot.store.sweep-interval}, and keeps this process's spill
+ * directory marked as alive ({@link SpillStore#touch()}).
+ */
+@Slf4j
+@Component
+public class StoreJanitor implements DisposableBean {
+
+    private final JobRepository jobRepository;
+    private final AssetRepository assetRepository;
+    private final SpillStore spillStore;
+    private final ScheduledExecutorService scheduler;
+
+    public StoreJanitor(JobRepository jobRepository, AssetRepository assetRepository, SpillStore spillStore,
+                        @Value("${copilot.store.sweep-interval:PT1M}") Duration interval) {
+        this.jobRepository = jobRepository;
+        this.assetRepository = assetRepository;
+        this.spillStore = spillStore;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "store-janitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::sweep, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    void sweep() {
+        try {
+            jobRepository.sweep();
+            assetRepository.sweep();
+            spillStore.touch();
+        } catch (RuntimeException e) {
+            // 다음 주기에 다시 시도 (예외가 나면 스케줄이 중단되므로 삼킴)
+            log.warn("Store sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
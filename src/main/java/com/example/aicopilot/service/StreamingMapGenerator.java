@@ -0,0 +1,81 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.agent.ProcessArchitect;
+import com.example.aicopilot.dto.process.ProcessResponse;
+import com.example.aicopilot.llm.StreamHandle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming variant of {@link ProcessArchitect#transformToMap}.
+ * Every completed swimlane/activity is pushed into the job as a partial ProcessResponse,
+ * so pollers see the map grow instead of waiting for the full generation.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StreamingMapGenerator {
+
+    private static final long STREAM_TIMEOUT_SECONDS = 180;
+
+    private final ProcessArchitect processArchitect;
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+
+    public ProcessResponse generate(String jobId, String definitionJson) throws Exception {
+        long start = System.currentTimeMillis();
+        StringBuilder fullText = new StringBuilder();
+        CompletableFuture<String> done = new CompletableFuture<>();
+        boolean[] firstNodeSeen = {false};
+        boolean[] incremental = {true};
+
+        IncrementalProcessParser parser = new IncrementalProcessParser(objectMapper, partial -> {
+            if (!firstNodeSeen[0] && !partial.activities().isEmpty()) {
+                firstNodeSeen[0] = true;
+                jobRepository.recordStageDuration(jobId, "PROCESS_FIRST_NODE", System.currentTimeMillis() - start);
+            }
+            jobRepository.savePartialProcess(jobId, partial);
+        });
+
+        // Tokens arrive sequentially on the streaming client's thread
+        StreamHandle stream = StreamHandle.open();
+        try {
+            processArchitect.streamMap(definitionJson)
+                    .onNext(token -> {
+                        fullText.append(token);
+                        if (!incremental[0]) return;
+                        try {
+                            parser.feed(token);
+                        } catch (Exception e) {
+                            // 부분 파싱 실패 시 증분 게시만 중단하고, 최종 결과는 전체 텍스트로 파싱
+                            incremental[0] = false;
+                            log.warn("Job [{}] incremental map parsing stopped: {}", jobId, e.getMessage());
+                        }
+                    })
+                    .onComplete(response -> done.complete(fullText.toString()))
+                    .onError(done::completeExceptionally)
+                    .start();
+        } finally {
+            stream.close();
+        }
+
+        try {
+            String json = done.get(STREAM_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return objectMapper.readValue(json, ProcessResponse.class);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            // [Fix] 시간 초과/취소로 기다림을 포기하면 스트림도 끊고 게이트웨이 permit을 즉시 반납
+            if (!done.isDone()) {
+                stream.cancel();
+                log.warn("Job [{}] map stream abandoned before completion.", jobId);
+            }
+        }
+    }
+}
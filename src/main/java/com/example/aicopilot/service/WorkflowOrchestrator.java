@@ -5,20 +5,42 @@ import com.example.aicopilot.dto.JobStatus;
 import com.example.aicopilot.dto.ProgressStep;
 import com.example.aicopilot.dto.chat.*;
 import com.example.aicopilot.dto.definition.ProcessDefinition;
+import com.example.aicopilot.dto.process.Activity;
 import com.example.aicopilot.dto.process.ProcessResponse;
-import com.example.aicopilot.event.ProcessGeneratedEvent;
+import com.example.aicopilot.intent.IntentTrainingLog;
+import com.example.aicopilot.intent.LocalIntentClassifier;
+import com.example.aicopilot.llm.PromptBudget;
+import com.example.aicopilot.llm.TokenUsageScope;
+import com.example.aicopilot.pipeline.Pipeline;
+import com.example.aicopilot.pipeline.PipelineEngine;
+import com.example.aicopilot.pipeline.PipelineHaltedException;
+import com.example.aicopilot.pipeline.Stage;
+import com.example.aicopilot.pipeline.StageContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.aicopilot.pipeline.StageKeys.*;
 
 /**
  * Workflow Orchestrator (Ver 11.1 - Comprehensive Entry Points)
  * 인텐트 분류 및 가드레일을 통해 에이전트를 조율하며, 모든 생성/수정/변환 작업을 비동기로 관리합니다.
+ * [Refactor] 설계/수정/변환 흐름은 단계(Stage) DAG로 선언되어 {@link PipelineEngine}이 실행합니다.
  */
 @Slf4j
 @Service
@@ -33,47 +55,95 @@ public class WorkflowOrchestrator {
     private final ProcessValidator processValidator;
     private final JobRepository jobRepository;
     private final AssetRepository assetRepository;
-    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
+    private final StreamingMapGenerator streamingMapGenerator;
+    private final PreflightAgent preflightAgent;
+    private final AsyncTaskExecutor preflightExecutor;
+    private final LocalIntentClassifier localIntentClassifier;
+    private final IntentTrainingLog intentTrainingLog;
+    private final ProcessMapCompiler processMapCompiler;
+    private final ProcessRepairService processRepairService;
+    private final PromptBudget promptBudget;
+    private final PipelineEngine pipelineEngine;
+    private final JobCancellationRegistry cancellation;
+    private final AsyncArtifactGenerator artifactGenerator;
+    private final RequestCoalescer requestCoalescer;
+    private final FairShareScheduler fairShareScheduler;
+    private final AtomicLong sequentialPreflightBaseline = new AtomicLong();
+    private final AtomicLong fusedPreflights = new AtomicLong();
+
+    // [Streaming] true: 완성된 Activity/Swimlane을 생성 도중 JobRepository에 순차 반영
+    @Value("${copilot.map.streaming.enabled:false}")
+    private boolean streamingMapEnabled;
+
+    // [Optimization] Mode B: 규칙 기반 컴파일러로 정의서를 맵으로 변환 (false: 기존 LLM 변환)
+    @Value("${copilot.transform.compiler.enabled:true}")
+    private boolean transformCompilerEnabled;
+
+    // 컴파일된 맵의 라벨/설명만 LLM으로 다듬는 선택적 보강 단계
+    @Value("${copilot.transform.enrichment.enabled:false}")
+    private boolean transformEnrichmentEnabled;
+
+    // [Optimization] 설계 프롬프트의 KNOWLEDGE(선택 자산) 영역 토큰 예산 (기존 자산당 3000자 절단 대체)
+    @Value("${copilot.llm.budget.design.knowledge:4000}")
+    private int designKnowledgeTokens;
+
+    // [Optimization] 가드레일 + 인텐트 분류 실행 방식 (SEQUENTIAL: 기존 순차 호출)
+    @Value("${copilot.chat.preflight-mode:PARALLEL}")
+    private PreflightMode preflightMode;
+
+    // FUSED 모드에서 N번에 한 번(및 기준값이 없을 때) 순차 실행해 PREFLIGHT_SAVED 기준 지연을 측정 (0: 측정 안 함)
+    @Value("${copilot.chat.preflight-baseline-sample-every:50}")
+    private int preflightBaselineSampleEvery;
+
+    public enum PreflightMode {
+        SEQUENTIAL, // validate -> classify
+        PARALLEL,   // validate || classify, intent discarded on rejection
+        FUSED       // single PreflightAgent call
+    }
+
+    private record Preflight(ValidationResult validation, IntentType intent) {}
+
+    private record TimedIntent(IntentType intent, long millis) {}
 
     /**
      * 지능형 채팅 기반 통합 작업 실행 (Mode A / Chat)
      */
-    @Async
+    @Async("orchestrationExecutor")
     public void runChatJob(String jobId, ChatRequest request) {
         String userPrompt = request.userPrompt();
         List<String> assetIds = request.selectedAssetIds();
         String currentProcessJson = request.currentProcessJson();
 
-        try {
+        // [New] 취소 시 이 스레드(와 파이프라인 단계 스레드)가 인터럽트되어 진행 중인 LLM 호출 대기를 즉시 포기함 (GatewayChatModel)
+        JobCancellationRegistry.Binding binding = cancellation.bind(jobId);
+        try (binding) {
             log.info("Job [{}] started. Initializing domain validation.", jobId);
 
-            // 1. Domain Validation Step
-            jobRepository.upsertProgressStep(jobId, "val", "Evaluating domain context", ProgressStep.Status.IN_PROGRESS);
-            ValidationResult validation = inputGuardAgent.validate(userPrompt);
+            // 1~2. Domain Validation + Intent Analysis (mode: SEQUENTIAL / PARALLEL / FUSED)
+            Preflight preflight;
+            try (TokenUsageScope ignored = tokens(jobId, "PREFLIGHT")) {
+                preflight = runPreflight(jobId, userPrompt);
+            }
+            ValidationResult validation = preflight.validation();
 
             if (validation.status() != ValidationResult.ValidationStatus.VALID) {
                 jobRepository.upsertProgressStep(jobId, "val", "Validation completed", ProgressStep.Status.COMPLETED);
                 jobRepository.updateState(jobId, JobStatus.State.COMPLETED, validation.message());
                 return;
             }
-            jobRepository.upsertProgressStep(jobId, "val", "Domain context validated", ProgressStep.Status.COMPLETED);
-
-            // 2. Intent Analysis Step
-            jobRepository.upsertProgressStep(jobId, "intent", "Analyzing process requirements", ProgressStep.Status.IN_PROGRESS);
-            IntentResponse response = intentClassifier.classify(userPrompt);
-            IntentType intent = response.intent();
+            IntentType intent = preflight.intent();
             log.info("Job [{}] categorized as intent: {}", jobId, intent);
             jobRepository.upsertProgressStep(jobId, "intent", "Intent identified: " + intent, ProgressStep.Status.COMPLETED);
 
             // 3. Routing by Intent
             switch (intent) {
-                case DESIGN -> executeDesignFlow(jobId, userPrompt, assetIds);
+                case DESIGN -> executeDesignFlow(jobId, userPrompt, assetIds == null ? List.of() : assetIds);
                 case MODIFY -> {
                     if (currentProcessJson == null || currentProcessJson.isBlank()) {
                         jobRepository.updateState(jobId, JobStatus.State.FAILED, "No process context found to modify.");
                     } else {
-                        executeModificationFlow(jobId, userPrompt, currentProcessJson);
+                        executeModificationFlow(jobId, userPrompt, currentProcessJson, request.baseJobId());
                     }
                 }
                 case ANALYZE -> jobRepository.updateState(jobId, JobStatus.State.COMPLETED, "Optimization audit complete.");
@@ -81,102 +151,386 @@ public class WorkflowOrchestrator {
             }
         } catch (Exception e) {
             handleError(jobId, e);
+        } finally {
+            cancellation.release(jobId);
+            requestCoalescer.release(jobId);
+            fairShareScheduler.release(jobId);
         }
     }
 
     /**
      * 단순 텍스트 기반 퀵 스타트 지원 (Legacy Wrapper)
      */
-    @Async
+    @Async("orchestrationExecutor")
     public void runQuickStartJob(String jobId, String userRequest) {
-        runChatJob(jobId, new ChatRequest(userRequest, List.of(), null));
+        runChatJob(jobId, new ChatRequest(userRequest, List.of(), null, null));
     }
 
     /**
      * [Fix] Mode B: 정형화된 정의서를 시각적 맵으로 즉시 변환하는 기능 복구
      */
-    @Async
+    @Async("orchestrationExecutor")
     public void runTransformationJob(String jobId, String definitionJson) {
-        try {
+        try (JobCancellationRegistry.Binding ignored = cancellation.bind(jobId)) {
             log.info("Job [{}] starting direct transformation flow (Mode B).", jobId);
 
-            // 시각적 맵 생성 단계 시작 기록
-            jobRepository.upsertProgressStep(jobId, "map", "Generating Process Map visualization", ProgressStep.Status.IN_PROGRESS);
+            ProcessDefinition definition = objectMapper.readValue(definitionJson, ProcessDefinition.class);
+            Stage map = (transformCompilerEnabled ? Stage.of("PROCESS", this::compileMap) : Stage.of("PROCESS", this::transformToMap))
+                    .consumes(DEFINITION).produces(PROCESS)
+                    .withStep("map", "Generating Process Map visualization");
+            runPipeline(jobId, "transform", List.of(map), Map.of(
+                    USER_REQUEST, "Manual Transformation Request",
+                    DEFINITION, definition));
+        } catch (Exception e) {
+            handleError(jobId, e);
+        } finally {
+            cancellation.release(jobId);
+            fairShareScheduler.release(jobId);
+        }
+    }
 
-            transformAndFinalize(jobId, "Manual Transformation Request", definitionJson);
+    /**
+     * [New] 실패/취소된 작업을 체크포인트에서 재개합니다. 완료된 단계는 건너뛰고 첫 미완료 단계부터 실행합니다.
+     * 호출 전에 {@link JobRepository#reopen}으로 상태가 PENDING으로 되돌려져 있어야 합니다.
+     */
+    @Async("orchestrationExecutor")
+    public void resumeJob(String jobId) {
+        try (JobCancellationRegistry.Binding ignored = cancellation.bind(jobId)) {
+            log.info("Job [{}] resuming from checkpoint.", jobId);
+            jobRepository.updateState(jobId, JobStatus.State.PROCESSING, "Resuming from the last completed stage...");
+            completePipeline(jobId, () -> pipelineEngine.resume(jobId));
         } catch (Exception e) {
             handleError(jobId, e);
+        } finally {
+            cancellation.release(jobId);
+            requestCoalescer.release(jobId);
+            fairShareScheduler.release(jobId);
+        }
+    }
+
+    public boolean canResume(String jobId) {
+        return pipelineEngine.canResume(jobId);
+    }
+
+    private Preflight runPreflight(String jobId, String userPrompt) throws Exception {
+        long start = System.currentTimeMillis();
+        jobRepository.upsertProgressStep(jobId, "val", "Evaluating domain context", ProgressStep.Status.IN_PROGRESS);
+
+        // [Optimization] 로컬 분류기가 확신하는 경우 인텐트 LLM 호출을 생략하고 가드레일만 실행
+        Optional<IntentType> localIntent = localIntentClassifier.classify(userPrompt);
+        if (localIntent.isPresent()) {
+            Preflight preflight = runLocalPreflight(jobId, userPrompt, localIntent.get());
+            jobRepository.recordStageDuration(jobId, "PREFLIGHT", System.currentTimeMillis() - start);
+            return preflight;
+        }
+
+        PreflightMode mode = effectivePreflightMode();
+        Preflight preflight = switch (mode) {
+            case SEQUENTIAL -> runSequentialPreflight(jobId, userPrompt);
+            case PARALLEL -> runParallelPreflight(jobId, userPrompt);
+            case FUSED -> runFusedPreflight(jobId, userPrompt);
+        };
+        if (preflight.intent() != null) intentTrainingLog.record(userPrompt, preflight.intent());
+
+        long elapsed = System.currentTimeMillis() - start;
+        jobRepository.recordStageDuration(jobId, "PREFLIGHT", elapsed);
+        if (mode == PreflightMode.FUSED) {
+            long baseline = sequentialPreflightBaseline.get();
+            if (baseline > 0) jobRepository.recordStageDuration(jobId, "PREFLIGHT_SAVED", Math.max(0, baseline - elapsed));
+        }
+        return preflight;
+    }
+
+    // FUSED 모드는 순차 지연을 직접 측정할 수 없으므로 일부 요청을 순차로 실행해 기준값을 채움
+    private PreflightMode effectivePreflightMode() {
+        if (preflightMode != PreflightMode.FUSED || preflightBaselineSampleEvery <= 0) return preflightMode;
+        long n = fusedPreflights.getAndIncrement();
+        boolean sample = sequentialPreflightBaseline.get() == 0 || n % preflightBaselineSampleEvery == 0;
+        return sample ? PreflightMode.SEQUENTIAL : PreflightMode.FUSED;
+    }
+
+    private Preflight runLocalPreflight(String jobId, String userPrompt, IntentType intent) {
+        ValidationResult validation = inputGuardAgent.validate(userPrompt);
+        if (validation.status() != ValidationResult.ValidationStatus.VALID) {
+            return new Preflight(validation, null);
+        }
+        jobRepository.upsertProgressStep(jobId, "val", "Domain context validated", ProgressStep.Status.COMPLETED);
+        return new Preflight(validation, intent);
+    }
+
+    private Preflight runSequentialPreflight(String jobId, String userPrompt) {
+        long start = System.currentTimeMillis();
+        ValidationResult validation = inputGuardAgent.validate(userPrompt);
+        long guardMillis = System.currentTimeMillis() - start;
+        if (validation.status() != ValidationResult.ValidationStatus.VALID) {
+            return new Preflight(validation, null);
+        }
+        jobRepository.upsertProgressStep(jobId, "val", "Domain context validated", ProgressStep.Status.COMPLETED);
+
+        jobRepository.upsertProgressStep(jobId, "intent", "Analyzing process requirements", ProgressStep.Status.IN_PROGRESS);
+        long startIntent = System.currentTimeMillis();
+        IntentType intent = intentClassifier.classify(userPrompt).intent();
+        updatePreflightBaseline(guardMillis + System.currentTimeMillis() - startIntent);
+        return new Preflight(validation, intent);
+    }
+
+    /**
+     * 가드레일과 인텐트 분류를 동시에 실행합니다. 검증에 실패하면 진행 중인 분류 호출을 인터럽트로 취소(결과 폐기)합니다.
+     * 분류 호출은 대기열 없는 전용 풀에서 실행되며, 풀이 가득 차면 백그라운드 작업 뒤에 줄 서지 않고 순차 실행으로 전환합니다.
+     */
+    private Preflight runParallelPreflight(String jobId, String userPrompt) throws Exception {
+        long start = System.currentTimeMillis();
+        Future<TimedIntent> intentFuture;
+        try {
+            intentFuture = preflightExecutor.submit(TokenUsageScope.propagate(() -> {
+                try (JobCancellationRegistry.Binding ignored = cancellation.bind(jobId)) {
+                    long startIntent = System.currentTimeMillis();
+                    IntentType intent = intentClassifier.classify(userPrompt).intent();
+                    return new TimedIntent(intent, System.currentTimeMillis() - startIntent);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            log.warn("Job [{}] intent call could not be scheduled in parallel. Falling back to sequential preflight.", jobId);
+            return runSequentialPreflight(jobId, userPrompt);
+        }
+
+        ValidationResult validation;
+        try {
+            validation = inputGuardAgent.validate(userPrompt);
+        } catch (RuntimeException e) {
+            intentFuture.cancel(true);
+            throw e;
+        }
+        long guardMillis = System.currentTimeMillis() - start;
+        if (validation.status() != ValidationResult.ValidationStatus.VALID) {
+            intentFuture.cancel(true);
+            return new Preflight(validation, null);
+        }
+        jobRepository.upsertProgressStep(jobId, "val", "Domain context validated", ProgressStep.Status.COMPLETED);
+
+        jobRepository.upsertProgressStep(jobId, "intent", "Analyzing process requirements", ProgressStep.Status.IN_PROGRESS);
+        TimedIntent timedIntent;
+        try {
+            timedIntent = intentFuture.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
         }
+        long sequentialMillis = guardMillis + timedIntent.millis();
+        updatePreflightBaseline(sequentialMillis);
+        jobRepository.recordStageDuration(jobId, "PREFLIGHT_SAVED",
+                Math.max(0, sequentialMillis - (System.currentTimeMillis() - start)));
+        return new Preflight(validation, timedIntent.intent());
+    }
+
+    private Preflight runFusedPreflight(String jobId, String userPrompt) {
+        PreflightResponse response = preflightAgent.preflight(userPrompt);
+        ValidationResult validation = response.validation();
+        if (validation.status() != ValidationResult.ValidationStatus.VALID) {
+            return new Preflight(validation, null);
+        }
+        jobRepository.upsertProgressStep(jobId, "val", "Domain context validated", ProgressStep.Status.COMPLETED);
+        IntentType intent = response.intent() != null && response.intent().intent() != null
+                ? response.intent().intent() : IntentType.CHAT;
+        return new Preflight(validation, intent);
+    }
+
+    private void updatePreflightBaseline(long sequentialMillis) {
+        // EWMA of guard + intent latency, used to estimate what FUSED mode saves
+        sequentialPreflightBaseline.accumulateAndGet(sequentialMillis,
+                (prev, sample) -> prev == 0 ? sample : (prev * 4 + sample) / 5);
     }
 
     private void executeDesignFlow(String jobId, String userPrompt, List<String> assetIds) throws Exception {
-        jobRepository.upsertProgressStep(jobId, "outline", "Synthesizing process steps", ProgressStep.Status.IN_PROGRESS);
+        runPipeline(jobId, "design", List.of(
+                Stage.of("OUTLINE", this::draftOutline)
+                        .consumes(USER_REQUEST, ASSET_IDS).produces(DEFINITION)
+                        .withStep("outline", "Synthesizing process steps"),
+                Stage.of("PROCESS", this::transformToMap)
+                        .consumes(DEFINITION).produces(PROCESS)
+                        .withStep("map", "Generating Process Map visualization")
+        ), artifactGenerator.outlineStages(), Map.of(USER_REQUEST, userPrompt, ASSET_IDS, assetIds));
+    }
+
+    private void executeModificationFlow(String jobId, String userPrompt, String currentProcessJson, String baseJobId) throws Exception {
+        jobRepository.upsertProgressStep(jobId, "diff", "Identifying modification targets", ProgressStep.Status.IN_PROGRESS);
+        jobRepository.upsertProgressStep(jobId, "diff", "Modification targets identified", ProgressStep.Status.COMPLETED);
+
+        List<Stage> modify = List.of(
+                Stage.of("MODIFY", this::modifyProcess)
+                        .consumes(USER_REQUEST, CURRENT_PROCESS_JSON).produces(PROCESS)
+                        .withStep("modify", "Applying surgical changes"));
+        Map<String, Object> inputs = new HashMap<>(Map.of(USER_REQUEST, userPrompt, CURRENT_PROCESS_JSON, currentProcessJson));
+
+        // [Optimization] 기준 작업의 산출물이 있으면 변경된 노드의 데이터/폼만 다시 생성
+        JobStatus base = baseJobId == null ? null : jobRepository.findById(baseJobId);
+        if (base != null && base.processResponse() != null
+                && base.dataEntitiesResponse() != null && base.formResponse() != null) {
+            // 산출물만 전달 (진행 단계/분석 결과 등은 필요 없고 체크포인트에도 남지 않도록)
+            inputs.put(BASE_JOB, artifactsOf(base));
+            runPipeline(jobId, "modify", modify, artifactGenerator.incrementalStages(), inputs);
+        } else {
+            runPipeline(jobId, "modify", modify, inputs);
+        }
+    }
+
+    private static JobStatus artifactsOf(JobStatus base) {
+        return new JobStatus(
+                base.jobId(), base.state(), null, null, base.version(), base.startTime(), Map.of(), base.totalElapsedMillis(),
+                List.of(), List.of(), base.processResponse(), base.dataEntitiesResponse(), base.formResponse(), Map.of());
+    }
+
+    /**
+     * 주어진 단계 뒤에 아티팩트 단계(Data -> Form, Audit)를 붙여 실행하고 작업을 완료 처리합니다.
+     */
+    private void runPipeline(String jobId, String name, List<Stage> stages, Map<String, Object> inputs) throws Exception {
+        runPipeline(jobId, name, stages, artifactGenerator.stages(), inputs);
+    }
+
+    private void runPipeline(String jobId, String name, List<Stage> stages, List<Stage> artifactStages,
+                             Map<String, Object> inputs) throws Exception {
+        List<Stage> all = new ArrayList<>(stages);
+        all.addAll(artifactStages);
+        completePipeline(jobId, () -> pipelineEngine.run(jobId, new Pipeline(name, all), inputs));
+    }
+
+    private void completePipeline(String jobId, Callable<?> pipeline) throws Exception {
+        try {
+            pipeline.call();
+        } catch (PipelineHaltedException e) {
+            jobRepository.updateState(jobId, e.state(), e.getMessage());
+            return;
+        }
+        // Complete all tasks
+        jobRepository.updateState(jobId, JobStatus.State.COMPLETED, "Architecture Completed Successfully.");
+    }
 
-        String ragContext = buildContextFromAssets(assetIds);
+    private ProcessDefinition draftOutline(StageContext ctx) {
+        String ragContext = buildContextFromAssets(ctx.get(ASSET_IDS));
         String augmentedPrompt = String.format("""
             ### MISSION: Senior Business Process Architect
             Draft a structured business process in JSON format.
             USER REQUEST: "%s"
             KNOWLEDGE: %s
-            """, userPrompt, ragContext.isEmpty() ? "General standards." : ragContext);
-
-        ProcessDefinition definition = processOutliner.draftDefinition(augmentedPrompt);
+            """, ctx.<String>get(USER_REQUEST), ragContext.isEmpty() ? "General standards." : ragContext);
 
+        ProcessDefinition definition;
+        try (TokenUsageScope ignored = tokens(ctx.jobId(), "OUTLINE")) {
+            definition = processOutliner.draftDefinition(augmentedPrompt);
+        }
         if (definition.steps() == null || definition.steps().isEmpty()) {
-            jobRepository.upsertProgressStep(jobId, "outline", "Failed to identify steps", ProgressStep.Status.FAILED);
-            jobRepository.updateState(jobId, JobStatus.State.COMPLETED, "No design steps could be identified.");
-            return;
+            throw ctx.halt(JobStatus.State.COMPLETED, "No design steps could be identified.");
         }
-        jobRepository.upsertProgressStep(jobId, "outline", "Process steps synthesized", ProgressStep.Status.COMPLETED);
-
-        jobRepository.upsertProgressStep(jobId, "map", "Generating Process Map visualization", ProgressStep.Status.IN_PROGRESS);
-        transformAndFinalize(jobId, userPrompt, objectMapper.writeValueAsString(definition));
+        return definition;
     }
 
-    private void executeModificationFlow(String jobId, String userPrompt, String currentProcessJson) throws Exception {
-        jobRepository.upsertProgressStep(jobId, "diff", "Identifying modification targets", ProgressStep.Status.IN_PROGRESS);
-        jobRepository.upsertProgressStep(jobId, "diff", "Modification targets identified", ProgressStep.Status.COMPLETED);
-
-        jobRepository.upsertProgressStep(jobId, "modify", "Applying surgical changes", ProgressStep.Status.IN_PROGRESS);
-        long startTime = System.currentTimeMillis();
+    private ProcessResponse modifyProcess(StageContext ctx) {
+        String jobId = ctx.jobId();
+        ProcessResponse updatedProcess;
+        try (TokenUsageScope ignored = tokens(jobId, "MODIFY")) {
+            updatedProcess = partialModifier.modifyProcess(ctx.get(CURRENT_PROCESS_JSON), ctx.get(USER_REQUEST));
+        }
+        updatedProcess = processRepairService.repair(jobId, null, updatedProcess);
 
-        ProcessResponse updatedProcess = partialModifier.modifyProcess(currentProcessJson, userPrompt);
-        processValidator.validate(updatedProcess);
+        jobRepository.saveArtifact(jobId, "PROCESS", updatedProcess, ctx.elapsedMillis());
+        return updatedProcess;
+    }
 
-        jobRepository.saveArtifact(jobId, "PROCESS", updatedProcess, System.currentTimeMillis() - startTime);
-        jobRepository.upsertProgressStep(jobId, "modify", "Surgical changes applied", ProgressStep.Status.COMPLETED);
+    private ProcessResponse transformToMap(StageContext ctx) throws Exception {
+        String jobId = ctx.jobId();
+        String definitionJson = objectMapper.writeValueAsString(ctx.<ProcessDefinition>get(DEFINITION));
+        ProcessResponse process;
+        try (TokenUsageScope ignored = tokens(jobId, "PROCESS")) {
+            process = streamingMapEnabled
+                    ? streamingMapGenerator.generate(jobId, definitionJson)
+                    : processArchitect.transformToMap(definitionJson);
+        }
+        // [Self-Correction] 검증 실패 시 작업을 실패 처리하지 않고 로컬 수정 -> fixMap 순으로 복구
+        process = processRepairService.repair(jobId, definitionJson, process);
 
-        jobRepository.upsertProgressStep(jobId, "sync", "Synchronizing data & forms", ProgressStep.Status.IN_PROGRESS);
-        eventPublisher.publishEvent(new ProcessGeneratedEvent(this, jobId, userPrompt, updatedProcess));
+        jobRepository.saveArtifact(jobId, "PROCESS", process, ctx.elapsedMillis());
+        return process;
     }
 
-    private void transformAndFinalize(String jobId, String userRequest, String definitionJson) throws Exception {
-        long startTransform = System.currentTimeMillis();
-        ProcessResponse process = processArchitect.transformToMap(definitionJson);
+    /**
+     * [Optimization] Mode B: LLM 호출 없이 정의서를 맵으로 컴파일합니다. 보강(enrichment)은 선택 사항이며,
+     * 보강 결과가 토폴로지를 바꾸거나 실패하면 컴파일 결과를 그대로 사용합니다.
+     */
+    private ProcessResponse compileMap(StageContext ctx) throws Exception {
+        String jobId = ctx.jobId();
+        ProcessDefinition definition = ctx.get(DEFINITION);
+        ProcessResponse process = processMapCompiler.compile(definition);
         processValidator.validate(process);
+        jobRepository.recordStageDuration(jobId, "PROCESS_COMPILE", ctx.elapsedMillis());
+
+        if (transformEnrichmentEnabled) {
+            try (TokenUsageScope ignored = tokens(jobId, "PROCESS_ENRICH")) {
+                process = enrichCompiledMap(jobId, objectMapper.writeValueAsString(definition), process);
+            }
+        }
 
-        jobRepository.saveArtifact(jobId, "PROCESS", process, System.currentTimeMillis() - startTransform);
-        jobRepository.upsertProgressStep(jobId, "map", "Process Map generated", ProgressStep.Status.COMPLETED);
+        jobRepository.saveArtifact(jobId, "PROCESS", process, ctx.elapsedMillis());
+        return process;
+    }
 
-        eventPublisher.publishEvent(new ProcessGeneratedEvent(this, jobId, userRequest, process));
+    private ProcessResponse enrichCompiledMap(String jobId, String definitionJson, ProcessResponse compiled) {
+        long start = System.currentTimeMillis();
+        try {
+            ProcessResponse enriched = processArchitect.enrichMap(definitionJson, objectMapper.writeValueAsString(compiled));
+            Map<String, Activity> enrichedById = new HashMap<>();
+            if (enriched.activities() != null) {
+                enriched.activities().forEach(a -> enrichedById.put(a.id(), a));
+            }
+            // 텍스트 필드만 병합 (ID/연결/설정은 컴파일 결과 유지)
+            List<Activity> merged = compiled.activities().stream().map(a -> {
+                Activity e = enrichedById.get(a.id());
+                if (e == null) return a;
+                return new Activity(a.id(), a.type(),
+                        e.label() != null && !e.label().isBlank() ? e.label() : a.label(),
+                        a.swimlaneId(),
+                        e.description() != null && !e.description().isBlank() ? e.description() : a.description(),
+                        a.configuration(), a.inputMapping(), a.position(), a.nextActivityId(), a.sourceRef());
+            }).toList();
+            return new ProcessResponse(
+                    enriched.processName() != null && !enriched.processName().isBlank() ? enriched.processName() : compiled.processName(),
+                    enriched.description() != null && !enriched.description().isBlank() ? enriched.description() : compiled.description(),
+                    compiled.swimlanes(), merged);
+        } catch (Exception e) {
+            log.warn("Job [{}] map enrichment skipped: {}", jobId, e.getMessage());
+            return compiled;
+        } finally {
+            jobRepository.recordStageDuration(jobId, "PROCESS_ENRICH", System.currentTimeMillis() - start);
+        }
     }
 
+    /**
+     * 선택된 자산을 토큰 예산 안에 채워 넣습니다. 선택 순서가 우선순위이며, 예산이 부족하면 뒤쪽 자산부터 잘립니다.
+     */
     private String buildContextFromAssets(List<String> assetIds) {
         if (assetIds == null || assetIds.isEmpty()) return "";
-        StringBuilder sb = new StringBuilder();
+        List<PromptBudget.Section> sections = new ArrayList<>();
         for (String id : assetIds) {
             assetRepository.findById(id).ifPresent(asset -> {
-                sb.append(String.format("- [Source: %s]\n", asset.fileName()));
                 String content = (asset.extractedText() != null && !asset.extractedText().isBlank())
                         ? asset.extractedText() : asset.description();
-                if (content.length() > 3000) content = content.substring(0, 3000) + "...";
-                sb.append(content).append("\n\n");
+                if (content == null) return;
+                sections.add(new PromptBudget.Section(
+                        String.format("- [Source: %s]\n", asset.fileName()), content, sections.size()));
             });
         }
-        return sb.toString();
+        return promptBudget.pack(sections, designKnowledgeTokens);
+    }
+
+    // [New] 스코프 안의 LLM 호출 토큰 수를 JobStatus.tokenUsage에 단계별로 기록
+    private TokenUsageScope tokens(String jobId, String stage) {
+        return TokenUsageScope.open((prompt, completion) -> jobRepository.recordTokenUsage(jobId, stage, prompt, completion));
     }
 
     private void handleError(String jobId, Exception e) {
+        if (cancellation.isCancelled(jobId)) {
+            // 취소로 인한 인터럽트/중단은 실패가 아님 (상태는 이미 CANCELLED)
+            log.info("Job [{}] stopped after cancellation ({}).", jobId, e.getClass().getSimpleName());
+            return;
+        }
         log.error("Job [{}] failed: {}", jobId, e.getMessage());
         jobRepository.updateState(jobId, JobStatus.State.FAILED, "System Error: " + e.getMessage());
 
@@ -0,0 +1,133 @@
+package com.example.aicopilot.service;
+
+import com.example.aicopilot.dto.JobStatus;
+import com.example.aicopilot.dto.ProgressStep;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JobRepository 갱신 비용 비교 (allocation per update: gc.alloc.rate.norm).
+ * copyOnWrite* 는 이전 방식(갱신마다 목록/맵 복사 + JobStatus 재생성)을 그대로 재현한 기준값입니다.
+ * <p>
+ * 실행: IDE에서 main 실행, 또는 {@code java -cp target/test-classes:<test classpath> com.example.aicopilot.service.JobRepositoryBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobRepositoryBenchmark {
+
+	private static final String JOB_ID = "bench";
+	private static final String[] STEP_IDS = {"val", "intent", "outline", "map", "data", "form", "audit", "sync"};
+
+	private JobRepository repository;
+	private Map<String, JobStatus> copyOnWriteStore;
+	private int counter;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		repository = new JobRepository(new SpillStore("", Duration.ofDays(1), new ObjectMapper(), meterRegistry), meterRegistry);
+		repository.initJob(JOB_ID);
+		copyOnWriteStore = new ConcurrentHashMap<>();
+		copyOnWriteStore.put(JOB_ID, JobStatus.init(JOB_ID));
+		for (String stepId : STEP_IDS) {
+			repository.upsertProgressStep(JOB_ID, stepId, stepId, ProgressStep.Status.COMPLETED);
+			copyOnWriteUpsertStep(stepId, ProgressStep.Status.COMPLETED);
+		}
+		counter = 0;
+	}
+
+	@Benchmark
+	public void upsertProgressStep() {
+		repository.upsertProgressStep(JOB_ID, nextStep(), "label", ProgressStep.Status.IN_PROGRESS);
+	}
+
+	@Benchmark
+	public void copyOnWriteUpsertProgressStep() {
+		copyOnWriteUpsertStep(nextStep(), ProgressStep.Status.IN_PROGRESS);
+	}
+
+	@Benchmark
+	public void recordStageDuration() {
+		repository.recordStageDuration(JOB_ID, nextStep(), counter);
+	}
+
+	@Benchmark
+	public void copyOnWriteRecordStageDuration() {
+		String stage = nextStep();
+		copyOnWriteStore.computeIfPresent(JOB_ID, (id, current) -> {
+			Map<String, Long> durations = new HashMap<>(current.stageDurations());
+			durations.put(stage, (long) counter);
+			return rebuild(current, current.state(), current.progressSteps(), durations);
+		});
+	}
+
+	/**
+	 * 폴링 클라이언트 패턴: 갱신 8회마다 한 번 조회 (스냅샷은 조회 시에만 생성).
+	 */
+	@Benchmark
+	public JobStatus updatesWithPolling() {
+		repository.upsertProgressStep(JOB_ID, nextStep(), "label", ProgressStep.Status.IN_PROGRESS);
+		return (counter & 7) == 0 ? repository.findById(JOB_ID) : null;
+	}
+
+	@Benchmark
+	public JobStatus copyOnWriteUpdatesWithPolling() {
+		copyOnWriteUpsertStep(nextStep(), ProgressStep.Status.IN_PROGRESS);
+		return (counter & 7) == 0 ? copyOnWriteStore.get(JOB_ID) : null;
+	}
+
+	private String nextStep() {
+		return STEP_IDS[counter++ & 7];
+	}
+
+	private void copyOnWriteUpsertStep(String stepId, ProgressStep.Status status) {
+		copyOnWriteStore.computeIfPresent(JOB_ID, (id, current) -> {
+			List<ProgressStep> steps = new ArrayList<>(current.progressSteps());
+			boolean found = false;
+			for (int i = 0; i < steps.size(); i++) {
+				if (steps.get(i).id().equals(stepId)) {
+					steps.set(i, steps.get(i).withStatus(status));
+					found = true;
+					break;
+				}
+			}
+			if (!found) steps.add(new ProgressStep(stepId, stepId, status));
+			return rebuild(current, current.state(), steps, current.stageDurations());
+		});
+	}
+
+	private static JobStatus rebuild(JobStatus current, JobStatus.State state, List<ProgressStep> steps, Map<String, Long> durations) {
+		return new JobStatus(
+				current.jobId(), state, current.message(), current.lastUpdatedStage(),
+				current.version() + 1, current.startTime(), durations,
+				System.currentTimeMillis() - current.startTime(),
+				steps, current.analysisResults(),
+				current.processResponse(), current.dataEntitiesResponse(), current.formResponse(),
+				current.tokenUsage()
+		);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JobRepositoryBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}